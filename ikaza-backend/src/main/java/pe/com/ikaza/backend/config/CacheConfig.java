@@ -0,0 +1,48 @@
+package pe.com.ikaza.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caché en memoria para las lecturas públicas del catálogo.
+ * Las entradas se desalojan por tamaño y por TTL; además se invalidan
+ * explícitamente cuando un producto o su stock cambian (ver CatalogoCacheInvalidador).
+ * Las estadísticas (hits, misses, evictions) se publican en /actuator/metrics/cache.*
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CACHE_PRODUCTOS = "productos";
+    public static final String CACHE_PRODUCTO_DETALLE = "productoDetalle";
+    public static final String CACHE_PRODUCTO_MAS_VENDIDO = "productoMasVendido";
+    public static final String CACHE_PRODUCTOS_DESTACADOS = "productosDestacados";
+
+    @Value("${catalogo.cache.tamano-maximo:2000}")
+    private long tamanoMaximo;
+
+    @Value("${catalogo.cache.ttl-segundos:600}")
+    private long ttlSegundos;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+                CACHE_PRODUCTOS,
+                CACHE_PRODUCTO_DETALLE,
+                CACHE_PRODUCTO_MAS_VENDIDO,
+                CACHE_PRODUCTOS_DESTACADOS);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats());
+        cacheManager.setAllowNullValues(true);
+        return cacheManager;
+    }
+}
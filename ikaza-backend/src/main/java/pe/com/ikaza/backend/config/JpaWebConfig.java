@@ -0,0 +1,31 @@
+package pe.com.ikaza.backend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open-EntityManager-in-View registrado a mano (spring.jpa.open-in-view=false).
+ * Se mantiene para todas las rutas salvo el login: con OSIV la conexión JDBC
+ * queda retenida hasta el fin de la petición, incluida la espera de BCrypt,
+ * y una ráfaga de logins agotaría el pool de Hikari.
+ */
+@Configuration
+public class JpaWebConfig implements WebMvcConfigurer {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public JpaWebConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor)
+                .excludePathPatterns("/api/auth/login");
+    }
+}
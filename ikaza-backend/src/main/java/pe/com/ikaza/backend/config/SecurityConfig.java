@@ -16,12 +16,15 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.security.config.Customizer;
 import pe.com.ikaza.backend.security.JwtAuthenticationFilter;
+import pe.com.ikaza.backend.security.RutasPublicas;
 import pe.com.ikaza.backend.security.UserDetailsServiceImpl;
+import pe.com.ikaza.backend.security.VerificadorPasswords;
 import org.springframework.http.HttpMethod;
 
 import java.util.Arrays;
@@ -42,17 +45,31 @@ public class SecurityConfig {
         @Autowired
         private UserDetailsServiceImpl userDetailsService;
 
+        @Autowired
+        private RutasPublicas rutasPublicas;
+
         @Value("${cors.allowed-origins:http://localhost:4200}")
         private String allowedOrigins;
 
+        @Value("${seguridad.bcrypt.costo:10}")
+        private int costoBcrypt;
+
+        @Value("${seguridad.bcrypt.objetivo-ms:0}")
+        private long objetivoBcryptMs;
+
         @Bean
         public GrantedAuthorityDefaults grantedAuthorityDefaults() {
                 return new GrantedAuthorityDefaults("");
         }
 
+        /**
+         * BCrypt con costo configurable (o calibrado según seguridad.bcrypt.objetivo-ms).
+         * Los hashes con un costo menor se re-codifican en el siguiente login.
+         */
         @Bean
         public PasswordEncoder passwordEncoder() {
-                return new BCryptPasswordEncoder();
+                return new BCryptPasswordEncoder(
+                                VerificadorPasswords.calibrarCosto(costoBcrypt, objetivoBcryptMs));
         }
 
         @Bean
@@ -72,22 +89,17 @@ public class SecurityConfig {
         // Configuración principal de seguridad
         @Bean
         public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+                RequestMatcher rutasPermitidas = rutasPublicas::esPermitida;
                 http
                                 .cors(Customizer.withDefaults())
                                 .csrf(csrf -> csrf.disable())
                                 .sessionManagement(session -> session
                                                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                                 .authorizeHttpRequests(auth -> auth
-                                                // Rutas públicas
-                                                .requestMatchers("/api/auth/**").permitAll()
-                                                .requestMatchers("/api/public/**").permitAll()
-                                                .requestMatchers("/api/contacto/**").permitAll()
+                                                // Rutas públicas (auth, contacto y catálogo de lectura; ver RutasPublicas)
+                                                .requestMatchers(rutasPermitidas).permitAll()
                                                 .requestMatchers("/api/verification/**").authenticated()
 
-                                                // Rutas públicas de Producto (lectura/consulta)
-                                                .requestMatchers(HttpMethod.GET, "/api/productos", "/api/productos/**")
-                                                .permitAll()
-
                                                 // Rutas de Producto (administrador)
                                                 .requestMatchers(HttpMethod.POST, "/api/productos")
                                                 .hasRole("ADMINISTRADOR")
@@ -96,11 +108,6 @@ public class SecurityConfig {
                                                 .requestMatchers(HttpMethod.DELETE, "/api/productos/**")
                                                 .hasRole("ADMINISTRADOR")
 
-                                                // Rutas públicas de Categoria (lectura/consulta)
-                                                .requestMatchers(HttpMethod.GET, "/api/categorias",
-                                                                "/api/categorias/**")
-                                                .permitAll()
-
                                                 // Rutas de Categoria (administrador)
                                                 .requestMatchers(HttpMethod.POST, "/api/categorias")
                                                 .hasRole("ADMINISTRADOR")
@@ -10,6 +10,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import pe.com.ikaza.backend.dto.request.AjusteStockRequest;
+import pe.com.ikaza.backend.dto.response.CursorPageResponse;
 import pe.com.ikaza.backend.dto.response.InventarioResponse;
 import pe.com.ikaza.backend.dto.response.MessageResponse;
 import pe.com.ikaza.backend.dto.response.MovimientoInventarioResponse;
@@ -129,6 +130,26 @@ public class InventarioController {
         return ResponseEntity.ok(movimientos);
     }
 
+    /**
+     * GET /api/inventario/movimientos/cursor?idProducto=&cursor=&size=50
+     * Historial de movimientos con paginación por cursor (opcionalmente de un producto)
+     */
+    @GetMapping("/movimientos/cursor")
+    public ResponseEntity<?> obtenerMovimientosPorCursor(
+            @RequestParam(required = false) Long idProducto,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            CursorPageResponse<MovimientoInventarioResponse> movimientos = inventarioAdminService
+                    .obtenerMovimientosPorCursor(idProducto, cursor, Math.min(size, 200));
+            return ResponseEntity.ok(movimientos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage(), false));
+        }
+    }
+
     /**
      * GET /api/inventario/stock-bajo
      * Obtiene productos con stock bajo (≤5)
@@ -3,11 +3,13 @@ package pe.com.ikaza.backend.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import pe.com.ikaza.backend.dto.request.PedidoRequest;
+import pe.com.ikaza.backend.dto.response.CursorPageResponse;
 import pe.com.ikaza.backend.dto.response.PedidoDetalleResponse;
 import pe.com.ikaza.backend.dto.response.PedidoResponse;
 import pe.com.ikaza.backend.entity.Pedido;
@@ -141,23 +143,9 @@ public class PedidoController {
             Integer idUsuario = usuario.getIdUsuario();
 
             List<Pedido> pedidos = pedidoService.getPedidosByUserId(idUsuario);
-            List<PedidoResponse> responseList = pedidos.stream().map(pedido -> {
-                int cantidadProductos = pedidoService.contarDetallesPedido(pedido.getIdPedido());
-                return PedidoResponse.builder()
-                        .success(true)
-                        .pedidoId(pedido.getIdPedido())
-
-                        .numeroPedido(pedido.getNumeroPedido())
-                        .estadoPedido(pedido.getEstado().name())
-                        .estadoPago(pedido.getEstadoPago().name())
-                        .total(pedido.getTotal())
-                        .subtotal(pedido.getSubtotal())
-
-                        .fechaPedido(pedido.getFechaPedido())
-                        .mensaje("Pedidos obtenidos")
-                        .cantidadProductos(cantidadProductos)
-                        .build();
-            }).collect(Collectors.toList());
+            List<PedidoResponse> responseList = pedidos.stream()
+                    .map(this::convertirAResumen)
+                    .collect(Collectors.toList());
             return ResponseEntity.ok(responseList);
         } catch (Exception e) {
             log.error("Error al obtener pedidos", e);
@@ -166,8 +154,56 @@ public class PedidoController {
         }
     }
 
+    /**
+     * Pedidos del usuario autenticado con paginación por cursor.
+     * GET /api/usuarios/pedidos/mis-pedidos/cursor?cursor=...&size=20
+     */
+    @GetMapping("/mis-pedidos/cursor")
+    public ResponseEntity<?> obtenerMisPedidosPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        try {
+            Usuario usuario = extraerUsuario(authentication);
+            Window<Pedido> pedidos = pedidoService.getPedidosByUserIdPorCursor(
+                    usuario.getIdUsuario(), cursor, Math.min(size, 100));
+            List<PedidoResponse> contenido = pedidos.getContent().stream()
+                    .map(this::convertirAResumen)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(CursorPageResponse.desde(pedidos, contenido));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(PedidoResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al obtener pedidos", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(PedidoResponse.error("Error al obtener los pedidos: " + e.getMessage()));
+        }
+    }
+
     // ===== MÉTODOS AUXILIARES =====
 
+    /**
+     * Resumen de un pedido para los listados del cliente
+     */
+    private PedidoResponse convertirAResumen(Pedido pedido) {
+        int cantidadProductos = pedidoService.contarDetallesPedido(pedido.getIdPedido());
+        return PedidoResponse.builder()
+                .success(true)
+                .pedidoId(pedido.getIdPedido())
+
+                .numeroPedido(pedido.getNumeroPedido())
+                .estadoPedido(pedido.getEstado().name())
+                .estadoPago(pedido.getEstadoPago().name())
+                .total(pedido.getTotal())
+                .subtotal(pedido.getSubtotal())
+
+                .fechaPedido(pedido.getFechaPedido())
+                .mensaje("Pedidos obtenidos")
+                .cantidadProductos(cantidadProductos)
+                .build();
+    }
+
     /**
      * Extrae el ID del usuario del JWT utilizando el email.
      */
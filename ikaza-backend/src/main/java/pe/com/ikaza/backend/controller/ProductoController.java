@@ -12,9 +12,11 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import pe.com.ikaza.backend.dto.request.ProductoRequest;
 import pe.com.ikaza.backend.dto.request.ProductoUpdateRequest;
+import pe.com.ikaza.backend.dto.response.CursorPageResponse;
 import pe.com.ikaza.backend.dto.response.MessageResponse;
 import pe.com.ikaza.backend.dto.response.ProductoDetalleResponse;
 import pe.com.ikaza.backend.dto.response.ProductoResponse;
+import pe.com.ikaza.backend.dto.response.SugerenciaResponse;
 import pe.com.ikaza.backend.service.ProductoService;
 
 import java.util.List;
@@ -51,6 +53,51 @@ public class ProductoController {
         return ResponseEntity.ok(productos);
     }
 
+    /**
+     * GET /api/productos/cursor?cursor=...&size=20
+     * Obtiene productos con paginación por cursor, sin total de elementos (público)
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<?> obtenerProductosPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "nombreProducto") String sort,
+            @RequestParam(defaultValue = "ASC") String direction) {
+        try {
+            CursorPageResponse<ProductoResponse> productos = productoService.obtenerProductosPorCursor(
+                    cursor, Math.min(size, 100), sort,
+                    Sort.Direction.fromOptionalString(direction).orElse(Sort.Direction.ASC));
+            return ResponseEntity.ok(productos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage(), false));
+        }
+    }
+
+    /**
+     * GET /api/productos/categoria/{idCategoria}/cursor?cursor=...&size=20
+     * Obtiene productos de una categoría con paginación por cursor (público)
+     */
+    @GetMapping("/categoria/{idCategoria}/cursor")
+    public ResponseEntity<?> obtenerProductosPorCategoriaPorCursor(
+            @PathVariable Long idCategoria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "nombreProducto") String sort,
+            @RequestParam(defaultValue = "ASC") String direction) {
+        try {
+            CursorPageResponse<ProductoResponse> productos = productoService.obtenerProductosPorCategoriaPorCursor(
+                    idCategoria, cursor, Math.min(size, 100), sort,
+                    Sort.Direction.fromOptionalString(direction).orElse(Sort.Direction.ASC));
+            return ResponseEntity.ok(productos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage(), false));
+        }
+    }
+
     /**
      * GET /api/productos/categoria/{idCategoria}
      * Obtiene productos de una categoría con paginación (público)
@@ -117,6 +164,19 @@ public class ProductoController {
         return ResponseEntity.ok(productos);
     }
 
+    /**
+     * GET /api/productos/sugerencias?q=cam&limite=8
+     * Sugerencias de autocompletado para el buscador (público)
+     */
+    @GetMapping("/sugerencias")
+    public ResponseEntity<List<SugerenciaResponse>> obtenerSugerencias(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "8") int limite) {
+
+        List<SugerenciaResponse> sugerencias = productoService.obtenerSugerencias(q, Math.min(limite, 20));
+        return ResponseEntity.ok(sugerencias);
+    }
+
     /**
      * GET /api/productos/mas-vendido
      * Obtiene el producto más vendido (público)
@@ -7,10 +7,13 @@ import pe.com.ikaza.backend.repository.UsuarioRepository;
 import pe.com.ikaza.backend.dto.request.PreferenciaMercadoPagoRequest;
 import pe.com.ikaza.backend.dto.request.ItemPedidoRequest;
 import pe.com.ikaza.backend.dto.response.PreferenciaMercadoPagoResponse;
+import pe.com.ikaza.backend.security.FirmaWebhookMercadoPago;
+import pe.com.ikaza.backend.service.ColaWebhookMercadoPago;
 import pe.com.ikaza.backend.service.PedidoService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -32,6 +35,8 @@ public class WebhookController {
     private final PedidoService pedidoService;
     private final ObjectMapper objectMapper;
     private final UsuarioRepository usuarioRepository;
+    private final ColaWebhookMercadoPago colaWebhookMercadoPago;
+    private final FirmaWebhookMercadoPago firmaWebhookMercadoPago;
 
     // ==================== MERCADO PAGO ====================
 
@@ -105,14 +110,27 @@ public class WebhookController {
 
     /**
      * Webhook de Mercado Pago para notificaciones asíncronas.
-     * Este webhook actualiza el estado del pedido según la notificación
+     * La ruta es pública: antes de encolar se valida la firma x-signature.
+     * Solo guarda la notificación en la cola y responde; el pedido se actualiza
+     * en segundo plano (ver ColaWebhookMercadoPago)
      * POST /api/webhooks/mercadopago
      */
     @PostMapping("/mercadopago")
     public ResponseEntity<String> webhookMercadoPago(
             @RequestBody String payload,
             @RequestParam(required = false) String type,
-            @RequestParam(required = false) String id) {
+            @RequestParam(required = false) String id,
+            @RequestParam(name = "data.id", required = false) String dataId,
+            @RequestHeader(name = "x-signature", required = false) String firma,
+            @RequestHeader(name = "x-request-id", required = false) String requestId) {
+
+        // Mercado Pago firma con el data.id de la URL (id en notificaciones antiguas);
+        // se encola ese mismo id y no el del cuerpo, que no está firmado
+        String idFirmado = dataId != null ? dataId : id;
+        if (!firmaWebhookMercadoPago.esValida(firma, requestId, idFirmado)) {
+            log.warn("Webhook de Mercado Pago con firma inválida rechazado. Type: {}, ID: {}", type, id);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("FIRMA INVALIDA");
+        }
 
         try {
             log.info("Webhook recibido de Mercado Pago. Type: {}, ID: {}", type, id);
@@ -121,7 +139,7 @@ public class WebhookController {
             JsonNode jsonNode = objectMapper.readTree(payload);
 
             if ("payment".equals(type)) {
-                procesarNotificacionPago(id, jsonNode);
+                procesarNotificacionPago(idFirmado, jsonNode);
             } else if ("merchant_order".equals(type)) {
                 procesarNotificacionOrden(id, jsonNode);
             } else {
@@ -131,25 +149,24 @@ public class WebhookController {
             return ResponseEntity.ok("OK");
 
         } catch (Exception e) {
-            log.error("Error procesando webhook de Mercado Pago", e);
-            return ResponseEntity.ok("ERROR");
+            // Si no se pudo encolar se responde con error para que Mercado Pago reintente
+            log.error("Error encolando webhook de Mercado Pago", e);
+            return ResponseEntity.internalServerError().body("ERROR");
         }
     }
 
     /**
-     * Procesa notificación de pago desde MercadoPago
+     * Encola la notificación de pago desde MercadoPago
      */
     private void procesarNotificacionPago(String paymentId, JsonNode payload) {
-        try {
-            log.info("Procesando notificación de pago: {}", paymentId);
-            String action = payload.has("action") ? payload.get("action").asText() : "payment.updated";
-
-            pedidoService.procesarWebhookMercadoPago(paymentId, action);
-
-            log.info("Notificación de pago procesada exitosamente");
-        } catch (Exception e) {
-            log.error("Error al procesar notificación de pago", e);
+        if (paymentId == null || paymentId.isBlank()) {
+            log.warn("Notificación de pago sin ID, se ignora");
+            return;
         }
+        String action = payload.has("action") ? payload.get("action").asText() : "payment.updated";
+
+        colaWebhookMercadoPago.encolar("payment", paymentId, action, payload.toString());
+        log.info("Notificación de pago {} encolada", paymentId);
     }
 
     /**
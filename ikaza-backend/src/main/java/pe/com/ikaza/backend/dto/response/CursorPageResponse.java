@@ -0,0 +1,35 @@
+package pe.com.ikaza.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Window;
+import pe.com.ikaza.backend.utils.CursorCodec;
+
+import java.util.List;
+
+/**
+ * Página de resultados con paginación por cursor (keyset).
+ * No incluye total de elementos: para pedir la siguiente página se envía
+ * {@code siguienteCursor} tal cual; es null cuando ya no hay más resultados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> contenido;
+    private String siguienteCursor;
+    private Boolean hayMas;
+    private Integer tamano;
+
+    /**
+     * Arma la respuesta a partir del Window consultado y su contenido ya convertido
+     */
+    public static <T> CursorPageResponse<T> desde(Window<?> window, List<T> contenido) {
+        String siguiente = window.hasNext() && !window.isEmpty()
+                ? CursorCodec.codificar(window.positionAt(window.size() - 1))
+                : null;
+        return new CursorPageResponse<>(contenido, siguiente, siguiente != null, contenido.size());
+    }
+}
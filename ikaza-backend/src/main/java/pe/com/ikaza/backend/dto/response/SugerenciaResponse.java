@@ -0,0 +1,22 @@
+package pe.com.ikaza.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de respuesta para las sugerencias del buscador (autocompletado)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugerenciaResponse {
+
+    private String texto;
+
+    /** PRODUCTO, MARCA o CATEGORIA */
+    private String tipo;
+
+    /** Solo para sugerencias de tipo PRODUCTO */
+    private Long idProducto;
+}
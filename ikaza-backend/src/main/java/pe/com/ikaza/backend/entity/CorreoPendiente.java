@@ -0,0 +1,81 @@
+package pe.com.ikaza.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Correo guardado en la misma transacción que lo origina (outbox).
+ * Un proceso en segundo plano lo envía por SMTP y reintenta si falla.
+ */
+@Entity
+@Table(name = "correos_pendientes", indexes = {
+        @Index(name = "idx_correo_estado_proximo", columnList = "estado, fecha_proximo_intento")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorreoPendiente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_correo")
+    private Long idCorreo;
+
+    @Column(name = "tipo", nullable = false, length = 50)
+    private String tipo;
+
+    @Column(name = "destinatario", nullable = false, length = 150)
+    private String destinatario;
+
+    @Column(name = "asunto", nullable = false, length = 255)
+    private String asunto;
+
+    @Column(name = "cuerpo_html", nullable = false, columnDefinition = "TEXT")
+    private String cuerpoHtml;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private EstadoCorreo estado;
+
+    @Column(name = "intentos", nullable = false)
+    private Integer intentos;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_proximo_intento", nullable = false)
+    private LocalDateTime fechaProximoIntento;
+
+    @Column(name = "fecha_envio")
+    private LocalDateTime fechaEnvio;
+
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+        if (fechaProximoIntento == null) {
+            fechaProximoIntento = fechaCreacion;
+        }
+        if (estado == null) {
+            estado = EstadoCorreo.PENDIENTE;
+        }
+        if (intentos == null) {
+            intentos = 0;
+        }
+    }
+
+    public enum EstadoCorreo {
+        PENDIENTE,
+        ENVIANDO,
+        ENVIADO,
+        ERROR
+    }
+}
@@ -0,0 +1,83 @@
+package pe.com.ikaza.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notificación recibida de una pasarela de pago, pendiente de procesar.
+ * Funciona como cola persistente: el webhook solo inserta y responde,
+ * y un proceso en segundo plano la consume.
+ */
+@Entity
+@Table(name = "notificaciones_webhook", indexes = {
+        @Index(name = "idx_notificacion_estado_proximo", columnList = "estado, fecha_proximo_intento"),
+        @Index(name = "idx_notificacion_payment", columnList = "payment_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificacionWebhook {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_notificacion")
+    private Long idNotificacion;
+
+    @Column(name = "tipo", length = 50)
+    private String tipo;
+
+    @Column(name = "payment_id", nullable = false, length = 100)
+    private String paymentId;
+
+    @Column(name = "accion", length = 100)
+    private String accion;
+
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private EstadoNotificacion estado;
+
+    @Column(name = "intentos", nullable = false)
+    private Integer intentos;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "fecha_recepcion", nullable = false, updatable = false)
+    private LocalDateTime fechaRecepcion;
+
+    @Column(name = "fecha_proximo_intento", nullable = false)
+    private LocalDateTime fechaProximoIntento;
+
+    @Column(name = "fecha_procesado")
+    private LocalDateTime fechaProcesado;
+
+    @PrePersist
+    protected void onCreate() {
+        fechaRecepcion = LocalDateTime.now();
+        if (fechaProximoIntento == null) {
+            fechaProximoIntento = fechaRecepcion;
+        }
+        if (estado == null) {
+            estado = EstadoNotificacion.PENDIENTE;
+        }
+        if (intentos == null) {
+            intentos = 0;
+        }
+    }
+
+    public enum EstadoNotificacion {
+        PENDIENTE,
+        PROCESANDO,
+        PROCESADO,
+        ERROR
+    }
+}
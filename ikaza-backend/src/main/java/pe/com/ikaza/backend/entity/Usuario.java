@@ -79,6 +79,10 @@ public class Usuario {
     @Column(name = "bloqueado_hasta")
     private LocalDateTime bloqueadoHasta;
 
+    // Los JWT emitidos antes de esta fecha dejan de valer (desactivación)
+    @Column(name = "tokens_revocados_hasta")
+    private LocalDateTime tokensRevocadosHasta;
+
     // =========================================
     // MÉTODOS DE CICLO DE VIDA
     // =========================================
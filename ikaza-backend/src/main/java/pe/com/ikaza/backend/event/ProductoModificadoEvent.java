@@ -0,0 +1,15 @@
+package pe.com.ikaza.backend.event;
+
+/**
+ * Evento publicado cuando un producto cambia (datos, stock o eliminación).
+ * Se consume después del commit para invalidar la caché del catálogo.
+ */
+public record ProductoModificadoEvent(Long idProducto, Tipo tipo) {
+
+    public enum Tipo {
+        CREADO,
+        ACTUALIZADO,
+        ELIMINADO,
+        STOCK
+    }
+}
@@ -4,7 +4,9 @@ package pe.com.ikaza.backend.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import pe.com.ikaza.backend.entity.CodigoVerificacion;
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -24,4 +26,17 @@ public interface CodigoVerificacionRepository extends JpaRepository<CodigoVerifi
         @Modifying
         @Query("DELETE FROM CodigoVerificacion c WHERE c.fechaExpiracion < :fecha")
         void eliminarCodigosExpirados(LocalDateTime fecha);
+
+        /**
+         * Marca como usado el código registrado (auditoría del almacén en memoria)
+         */
+        @Transactional
+        @Modifying
+        @Query("UPDATE CodigoVerificacion c SET c.usado = true, c.fechaUso = :fecha " +
+                        "WHERE c.tipo = :tipo AND c.codigo = :codigo AND c.usado = false " +
+                        "AND (c.email = :clave OR c.telefono = :clave)")
+        int marcarUsado(@Param("tipo") CodigoVerificacion.TipoVerificacion tipo,
+                        @Param("clave") String clave,
+                        @Param("codigo") String codigo,
+                        @Param("fecha") LocalDateTime fecha);
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package pe.com.ikaza.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import pe.com.ikaza.backend.entity.CorreoPendiente;
+import pe.com.ikaza.backend.entity.CorreoPendiente.EstadoCorreo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CorreoPendienteRepository extends JpaRepository<CorreoPendiente, Long>,
+        RepositorioCola<CorreoPendiente> {
+
+    @Override
+    @Query(value = """
+            SELECT * FROM correos_pendientes
+            WHERE estado = 'PENDIENTE' AND fecha_proximo_intento <= :ahora
+            ORDER BY id_correo
+            LIMIT :limite
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<CorreoPendiente> bloquearPendientes(@Param("ahora") LocalDateTime ahora,
+                                             @Param("limite") int limite);
+
+    /**
+     * Mientras un correo está ENVIANDO, fecha_proximo_intento es el fin de su plazo
+     */
+    @Override
+    @Transactional
+    @Modifying
+    @Query("UPDATE CorreoPendiente c SET c.estado = 'PENDIENTE' " +
+            "WHERE c.estado = 'ENVIANDO' AND c.fechaProximoIntento < :ahora")
+    int liberarReclamosVencidos(@Param("ahora") LocalDateTime ahora);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CorreoPendiente c SET c.estado = 'ENVIADO', c.fechaEnvio = :fecha, " +
+            "c.intentos = c.intentos + 1 WHERE c.idCorreo IN :ids")
+    int marcarEnviados(@Param("ids") Collection<Long> ids, @Param("fecha") LocalDateTime fecha);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CorreoPendiente c SET c.estado = :estado, c.intentos = :intentos, " +
+            "c.ultimoError = :error, c.fechaProximoIntento = :proximo WHERE c.idCorreo = :id")
+    int reprogramar(@Param("id") Long id,
+                    @Param("estado") EstadoCorreo estado,
+                    @Param("intentos") int intentos,
+                    @Param("error") String error,
+                    @Param("proximo") LocalDateTime proximo);
+
+    long countByEstado(EstadoCorreo estado);
+}
@@ -0,0 +1,140 @@
+package pe.com.ikaza.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import pe.com.ikaza.backend.entity.MovimientoInventario;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Operaciones de stock por carrito completo usando JDBC en lote.
+ * Todas las filas se actualizan en orden ascendente de id_producto, así dos carritos
+ * con productos en común siempre bloquean las filas en el mismo orden.
+ * Participa de la transacción JPA activa (misma conexión).
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventarioLoteRepository {
+
+    /**
+     * Operaciones condicionales sobre inventario; cada una afecta 0 filas si no se cumple su condición
+     */
+    public enum OperacionStock {
+        RESERVAR("UPDATE inventario SET stock_reservado = stock_reservado + ?, fecha_actualizacion = now() " +
+                "WHERE id_producto = ? AND stock_actual - stock_reservado >= ?"),
+        LIBERAR("UPDATE inventario SET stock_reservado = stock_reservado - ?, fecha_actualizacion = now() " +
+                "WHERE id_producto = ? AND stock_reservado >= ?"),
+        CONFIRMAR("UPDATE inventario SET stock_actual = stock_actual - ?, " +
+                "stock_reservado = stock_reservado - ?, fecha_actualizacion = now() " +
+                "WHERE id_producto = ? AND stock_reservado >= ? AND stock_actual >= ?"),
+        DEVOLVER("UPDATE inventario SET stock_actual = stock_actual + ?, fecha_actualizacion = now() " +
+                "WHERE id_producto = ?");
+
+        private final String sql;
+
+        OperacionStock(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    private static final String SQL_APLICAR_DELTAS =
+            "UPDATE inventario SET stock_actual = stock_actual + ?, stock_reservado = stock_reservado + ?, " +
+            "fecha_actualizacion = now() WHERE id_producto = ?";
+
+    private static final String SQL_SINCRONIZAR_PRODUCTOS =
+            "UPDATE productos p SET stock = i.stock_actual, fecha_actualizacion = now() " +
+            "FROM inventario i WHERE i.id_producto = p.id_producto AND p.id_producto IN (:ids)";
+
+    private static final String SQL_INSERTAR_MOVIMIENTO =
+            "INSERT INTO movimientos_inventario (id_usuario, id_producto, tipo_movimiento, cantidad, " +
+            "stock_anterior, stock_nuevo, motivo, fecha_movimiento) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Ejecuta la operación para todos los productos en un solo lote JDBC
+     * @param cantidades cantidad por id_producto, ordenada por id
+     * @return filas afectadas por producto, en el mismo orden
+     */
+    public int[] actualizar(OperacionStock operacion, SortedMap<Long, Integer> cantidades) {
+        // Los cambios pendientes de JPA deben llegar a la BD antes del lote
+        entityManager.flush();
+
+        List<Object[]> parametros = new ArrayList<>(cantidades.size());
+        for (Map.Entry<Long, Integer> entrada : cantidades.entrySet()) {
+            Integer cantidad = entrada.getValue();
+            Long idProducto = entrada.getKey();
+            parametros.add(switch (operacion) {
+                case CONFIRMAR -> new Object[] { cantidad, cantidad, idProducto, cantidad, cantidad };
+                case DEVOLVER -> new Object[] { cantidad, idProducto };
+                default -> new Object[] { cantidad, idProducto, cantidad };
+            });
+        }
+        return jdbcTemplate.batchUpdate(operacion.sql, parametros);
+    }
+
+    /**
+     * Suma variaciones ya validadas a stock_actual y stock_reservado, sin condiciones.
+     * Lo usa el libro de stock en memoria al persistir sus cambios pendientes.
+     * @param deltas por id_producto: {variación de stock_actual, variación de stock_reservado}
+     */
+    public int[] aplicarDeltas(SortedMap<Long, int[]> deltas) {
+        List<Object[]> parametros = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, int[]> entrada : deltas.entrySet()) {
+            parametros.add(new Object[] { entrada.getValue()[0], entrada.getValue()[1], entrada.getKey() });
+        }
+        return jdbcTemplate.batchUpdate(SQL_APLICAR_DELTAS, parametros);
+    }
+
+    /**
+     * Copia stock_actual del inventario a productos.stock en una sola sentencia
+     */
+    public int sincronizarStockProductos(Collection<Long> idsProducto) {
+        if (idsProducto.isEmpty()) {
+            return 0;
+        }
+        return namedParameterJdbcTemplate.update(SQL_SINCRONIZAR_PRODUCTOS,
+                new MapSqlParameterSource("ids", idsProducto));
+    }
+
+    /**
+     * Inserta los movimientos como un único lote JDBC.
+     * Los movimientos no se vuelven entidades administradas (no se necesitan sus IDs).
+     */
+    public void insertarMovimientos(List<MovimientoInventario> movimientos) {
+        if (movimientos.isEmpty()) {
+            return;
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(SQL_INSERTAR_MOVIMIENTO, movimientos, movimientos.size(), (ps, m) -> {
+            if (m.getUsuario() != null) {
+                ps.setInt(1, m.getUsuario().getIdUsuario());
+            } else {
+                ps.setNull(1, Types.INTEGER);
+            }
+            ps.setLong(2, m.getProducto().getIdProducto());
+            ps.setString(3, m.getTipoMovimiento().name());
+            ps.setInt(4, m.getCantidad());
+            ps.setInt(5, m.getStockAnterior());
+            ps.setInt(6, m.getStockNuevo());
+            ps.setString(7, m.getMotivo());
+            ps.setTimestamp(8, m.getFechaMovimiento() != null ? Timestamp.valueOf(m.getFechaMovimiento()) : ahora);
+        });
+    }
+}
@@ -2,9 +2,11 @@ package pe.com.ikaza.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pe.com.ikaza.backend.entity.Inventario;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +18,16 @@ public interface InventarioRepository extends JpaRepository<Inventario, Long> {
      */
     Optional<Inventario> findByProductoIdProducto(Long idProducto);
 
+    boolean existsByProductoIdProducto(Long idProducto);
+
+    /**
+     * Lee los contadores actuales de stock de varios productos sin cargar entidades
+     */
+    @Query("SELECT p.idProducto AS idProducto, p.nombreProducto AS nombreProducto, " +
+            "i.stockActual AS stockActual, i.stockReservado AS stockReservado " +
+            "FROM Inventario i JOIN i.producto p WHERE p.idProducto IN :ids")
+    List<StockInventarioView> consultarStocks(@Param("ids") Collection<Long> idsProducto);
+
     /**
      * Busca inventarios con stock bajo (stockDisponible <= 5)
      */
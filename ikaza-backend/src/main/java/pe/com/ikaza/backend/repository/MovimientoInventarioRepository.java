@@ -1,5 +1,9 @@
 package pe.com.ikaza.backend.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,6 +21,17 @@ public interface MovimientoInventarioRepository extends JpaRepository<Movimiento
          */
         List<MovimientoInventario> findByProductoIdProductoOrderByFechaMovimientoDesc(Long idProducto);
 
+        /**
+         * Movimientos de un producto con paginación por keyset
+         */
+        Window<MovimientoInventario> findByProductoIdProducto(
+                        Long idProducto, ScrollPosition posicion, Sort sort, Limit limite);
+
+        /**
+         * Todos los movimientos con paginación por keyset
+         */
+        Window<MovimientoInventario> findBy(ScrollPosition posicion, Sort sort, Limit limite);
+
         /**
          * Busca movimientos por tipo
          */
@@ -0,0 +1,57 @@
+package pe.com.ikaza.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import pe.com.ikaza.backend.entity.NotificacionWebhook;
+import pe.com.ikaza.backend.entity.NotificacionWebhook.EstadoNotificacion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificacionWebhookRepository extends JpaRepository<NotificacionWebhook, Long>,
+        RepositorioCola<NotificacionWebhook> {
+
+    @Override
+    @Query(value = """
+            SELECT * FROM notificaciones_webhook
+            WHERE estado = 'PENDIENTE' AND fecha_proximo_intento <= :ahora
+            ORDER BY id_notificacion
+            LIMIT :limite
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<NotificacionWebhook> bloquearPendientes(@Param("ahora") LocalDateTime ahora,
+                                                 @Param("limite") int limite);
+
+    /**
+     * fecha_proximo_intento guarda el fin del plazo mientras están PROCESANDO
+     */
+    @Override
+    @Transactional
+    @Modifying
+    @Query("UPDATE NotificacionWebhook n SET n.estado = 'PENDIENTE' " +
+            "WHERE n.estado = 'PROCESANDO' AND n.fechaProximoIntento < :ahora")
+    int liberarReclamosVencidos(@Param("ahora") LocalDateTime ahora);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE NotificacionWebhook n SET n.estado = 'PROCESADO', n.fechaProcesado = :fecha, " +
+            "n.intentos = n.intentos + 1 WHERE n.idNotificacion = :id")
+    int marcarProcesada(@Param("id") Long id, @Param("fecha") LocalDateTime fecha);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE NotificacionWebhook n SET n.estado = :estado, n.intentos = :intentos, " +
+            "n.ultimoError = :error, n.fechaProximoIntento = :proximo WHERE n.idNotificacion = :id")
+    int reprogramar(@Param("id") Long id,
+                    @Param("estado") EstadoNotificacion estado,
+                    @Param("intentos") int intentos,
+                    @Param("error") String error,
+                    @Param("proximo") LocalDateTime proximo);
+
+    long countByEstado(EstadoNotificacion estado);
+}
@@ -3,7 +3,13 @@ package pe.com.ikaza.backend.repository;
 import pe.com.ikaza.backend.entity.Pedido;
 import pe.com.ikaza.backend.enums.EstadoPedido;
 import pe.com.ikaza.backend.enums.MetodoPago;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,6 +25,18 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
 
         Optional<Pedido> findByNumeroPedido(String numeroPedido);
 
+        /**
+         * Pedido con bloqueo de fila: serializa las notificaciones concurrentes de un mismo pago
+         */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT p FROM Pedido p WHERE p.idPedido = :idPedido")
+        Optional<Pedido> findByIdParaActualizar(@Param("idPedido") Long idPedido);
+
+        /**
+         * Pedidos del usuario con paginación por keyset
+         */
+        Window<Pedido> findByIdUsuario(Integer idUsuario, ScrollPosition posicion, Sort sort, Limit limite);
+
         List<Pedido> findByIdUsuarioOrderByFechaPedidoDesc(Integer idUsuario);
 
         @Query("SELECT p FROM Pedido p WHERE p.idUsuario = :idUsuario " +
@@ -0,0 +1,40 @@
+package pe.com.ikaza.backend.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de solo lectura para el listado público de productos.
+ * Contiene únicamente las columnas que necesita ProductoResponse,
+ * por lo que no se cargan entidades en el contexto de persistencia.
+ */
+public interface ProductoListadoView {
+
+    Long getIdProducto();
+
+    String getNombreProducto();
+
+    String getDescripcionProducto();
+
+    BigDecimal getPrecio();
+
+    Integer getStock();
+
+    Integer getStockMinimo();
+
+    BigDecimal getCalificacionPromedio();
+
+    LocalDateTime getFechaCreacion();
+
+    LocalDateTime getFechaActualizacion();
+
+    Long getIdCategoria();
+
+    String getNombreCategoria();
+
+    String getMarca();
+
+    String getModelo();
+
+    String getImagenPrincipal();
+}
@@ -1,8 +1,14 @@
 package pe.com.ikaza.backend.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,6 +18,11 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Los listados que se convierten a ProductoResponse cargan categoría, inventario y
+ * detalle en la misma consulta (@EntityGraph): son @OneToOne inversos que Hibernate
+ * traería con una consulta por fila.
+ */
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
 
@@ -24,8 +35,21 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
         * Busca productos por categoría con paginación
         * Pageable permite dividir los resultados en páginas
         */
+       @EntityGraph(attributePaths = { "categoria", "inventario", "detalle" })
        Page<Producto> findByCategoriaIdCategoria(Long idCategoria, Pageable pageable);
 
+       /**
+        * Catálogo con paginación por keyset (sin OFFSET ni COUNT)
+        */
+       @EntityGraph(attributePaths = { "categoria", "inventario", "detalle" })
+       Window<Producto> findBy(ScrollPosition posicion, Sort sort, Limit limite);
+
+       /**
+        * Productos de una categoría con paginación por keyset
+        */
+       @EntityGraph(attributePaths = { "categoria", "inventario", "detalle" })
+       Window<Producto> findByCategoriaIdCategoria(Long idCategoria, ScrollPosition posicion, Sort sort, Limit limite);
+
        /**
         * Busca productos por nombre (búsqueda parcial, sin importar mayúsculas)
         */
@@ -36,15 +60,50 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
         */
        Page<Producto> findAll(Pageable pageable);
 
+       /**
+        * Listado del catálogo como proyección (sin entidades administradas).
+        * La imagen principal se extrae del jsonb de producto_detalle en SQL:
+        * primero la marcada como principal y, si no hay, la primera del arreglo.
+        * Los alias coinciden con las propiedades de ProductoResponse para que
+        * el ordenamiento del Pageable se aplique sobre ellos.
+        */
+       @Query(value = "SELECT p.id_producto AS idProducto, " +
+                     "p.nombre_producto AS nombreProducto, " +
+                     "p.descripcion_producto AS descripcionProducto, " +
+                     "p.precio AS precio, " +
+                     "p.stock AS stock, " +
+                     "p.stock_minimo AS stockMinimo, " +
+                     "p.calificacion_promedio AS calificacionPromedio, " +
+                     "p.fecha_creacion AS fechaCreacion, " +
+                     "p.fecha_actualizacion AS fechaActualizacion, " +
+                     "c.id_categoria AS idCategoria, " +
+                     "c.nombre_categoria AS nombreCategoria, " +
+                     "d.marca AS marca, " +
+                     "d.modelo AS modelo, " +
+                     "(SELECT img.valor ->> 'url' " +
+                     "   FROM jsonb_array_elements(CASE WHEN jsonb_typeof(d.imagenes) = 'array' " +
+                     "        THEN d.imagenes ELSE CAST('[]' AS jsonb) END) " +
+                     "        WITH ORDINALITY AS img(valor, orden) " +
+                     "  ORDER BY COALESCE(CAST(img.valor ->> 'esPrincipal' AS boolean), false) DESC, img.orden " +
+                     "  LIMIT 1) AS imagenPrincipal " +
+                     "FROM productos p " +
+                     "JOIN categorias c ON c.id_categoria = p.id_categoria " +
+                     "LEFT JOIN producto_detalle d ON d.id_producto = p.id_producto",
+                     countQuery = "SELECT COUNT(*) FROM productos",
+                     nativeQuery = true)
+       Page<ProductoListadoView> listarCatalogo(Pageable pageable);
+
        /**
         * Busca productos con stock disponible
         */
        List<Producto> findByStockGreaterThan(Integer stock);
 
+       @EntityGraph(attributePaths = { "categoria", "inventario", "detalle" })
        @Query("SELECT p FROM Producto p WHERE p.idProducto IN :ids")
        List<Producto> findAllByIdIn(@Param("ids") List<Long> ids);
 
        // Método para verificar y actualizar stock
+       @Modifying(flushAutomatically = true)
        @Query("UPDATE Producto p SET p.stock = p.stock - :cantidad " +
                      "WHERE p.idProducto = :idProducto AND p.stock >= :cantidad")
        int actualizarStock(
@@ -82,6 +141,7 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
        /**
         * Búsqueda con paginación
         */
+       @EntityGraph(attributePaths = { "categoria", "inventario", "detalle" })
        @Query("SELECT p FROM Producto p WHERE " +
                      "LOWER(p.nombreProducto) LIKE LOWER(CONCAT('%', :texto, '%')) OR " +
                      "LOWER(p.descripcionProducto) LIKE LOWER(CONCAT('%', :texto, '%'))")
@@ -96,18 +156,21 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
        /**
         * Obtiene los N productos más baratos con stock disponible
         */
+       @EntityGraph(attributePaths = { "categoria", "inventario", "detalle" })
        @Query("SELECT p FROM Producto p WHERE p.stock > 0 ORDER BY p.precio ASC")
        Page<Producto> findProductosMasBaratos(Pageable pageable);
 
        /**
         * Obtiene los N productos más recientes
         */
+       @EntityGraph(attributePaths = { "categoria", "inventario", "detalle" })
        @Query("SELECT p FROM Producto p ORDER BY p.fechaCreacion DESC")
        Page<Producto> findProductosMasRecientes(Pageable pageable);
 
        /**
         * Obtiene productos con stock entre 5 y 10 (por agotarse)
         */
+       @EntityGraph(attributePaths = { "categoria", "inventario", "detalle" })
        @Query("SELECT p FROM Producto p WHERE p.stock BETWEEN 5 AND 10 ORDER BY p.stock ASC")
        Page<Producto> findProductosPorAgotarse(Pageable pageable);
 
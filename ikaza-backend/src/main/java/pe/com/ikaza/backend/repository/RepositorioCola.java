@@ -0,0 +1,22 @@
+package pe.com.ikaza.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consultas que necesita ColaReclamable de una tabla usada como cola.
+ * Cada repositorio las declara con su propia @Query sobre su tabla.
+ */
+public interface RepositorioCola<T> {
+
+    /**
+     * Bloquea las próximas filas pendientes saltando las que ya tomó
+     * otra instancia (debe llamarse dentro de una transacción)
+     */
+    List<T> bloquearPendientes(LocalDateTime ahora, int limite);
+
+    /**
+     * Devuelve a pendientes las filas reclamadas cuyo plazo venció
+     */
+    int liberarReclamosVencidos(LocalDateTime ahora);
+}
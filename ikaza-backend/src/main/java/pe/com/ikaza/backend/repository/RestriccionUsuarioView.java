@@ -0,0 +1,13 @@
+package pe.com.ikaza.backend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de una restricción temporal de un usuario (bloqueo o corte de tokens)
+ */
+public interface RestriccionUsuarioView {
+
+    Integer getIdUsuario();
+
+    LocalDateTime getHasta();
+}
@@ -0,0 +1,15 @@
+package pe.com.ikaza.backend.repository;
+
+/**
+ * Proyección con los contadores de stock de un inventario, leídos directo de la BD
+ */
+public interface StockInventarioView {
+
+    Long getIdProducto();
+
+    String getNombreProducto();
+
+    Integer getStockActual();
+
+    Integer getStockReservado();
+}
@@ -1,8 +1,12 @@
 package pe.com.ikaza.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pe.com.ikaza.backend.entity.Usuario;
+
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,4 +37,24 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
      * Buscar usuarios activos
      */
     List<Usuario> findByActivoTrue();
+
+    /**
+     * IDs de usuarios desactivados
+     */
+    @Query("SELECT u.idUsuario FROM Usuario u WHERE u.activo = false")
+    List<Integer> findIdsInactivos();
+
+    /**
+     * Usuarios con bloqueo temporal vigente
+     */
+    @Query("SELECT u.idUsuario AS idUsuario, u.bloqueadoHasta AS hasta FROM Usuario u " +
+           "WHERE u.bloqueadoHasta > :ahora")
+    List<RestriccionUsuarioView> findBloqueosVigentes(@Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Usuarios cuyos tokens fueron revocados después de la fecha dada
+     */
+    @Query("SELECT u.idUsuario AS idUsuario, u.tokensRevocadosHasta AS hasta FROM Usuario u " +
+           "WHERE u.tokensRevocadosHasta > :desde")
+    List<RestriccionUsuarioView> findRevocacionesDesde(@Param("desde") LocalDateTime desde);
 }
\ No newline at end of file
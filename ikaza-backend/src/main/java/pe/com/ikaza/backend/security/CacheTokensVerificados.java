@@ -0,0 +1,92 @@
+package pe.com.ikaza.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de tokens ya verificados: SHA-256 del token -> usuario resuelto.
+ * Evita repetir la verificación HMAC, la lectura de claims y la carga del usuario
+ * en cada petición del mismo token. Cada entrada vence cuando vence el propio token.
+ */
+@Component
+public class CacheTokensVerificados {
+
+    /**
+     * Usuario resuelto de un token, con los datos necesarios para revalidar la revocación
+     */
+    public record TokenVerificado(UserDetails usuario, Integer idUsuario, Date emitido, Date expiracion) {
+    }
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    });
+
+    private final Cache<String, TokenVerificado> tokens;
+
+    public CacheTokensVerificados(MeterRegistry meterRegistry,
+                                  @Value("${jwt.cache.tamano-maximo:10000}") long tamanoMaximo) {
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfter(new Expiry<String, TokenVerificado>() {
+                    @Override
+                    public long expireAfterCreate(String clave, TokenVerificado token, long ahoraNanos) {
+                        long restanteMs = token.expiracion().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, restanteMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String clave, TokenVerificado token, long ahoraNanos,
+                                                  long duracionActual) {
+                        return expireAfterCreate(clave, token, ahoraNanos);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String clave, TokenVerificado token, long ahoraNanos,
+                                                long duracionActual) {
+                        return duracionActual;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "jwt.tokens");
+    }
+
+    public TokenVerificado obtener(String jwt) {
+        return tokens.getIfPresent(resumen(jwt));
+    }
+
+    public void guardar(String jwt, TokenVerificado token) {
+        if (token.expiracion() != null) {
+            tokens.put(resumen(jwt), token);
+        }
+    }
+
+    /**
+     * Quita de la caché todos los tokens del usuario (p. ej. al desactivarlo)
+     */
+    public void invalidarUsuario(String email) {
+        tokens.asMap().values().removeIf(token -> token.usuario().getUsername().equals(email));
+    }
+
+    private static String resumen(String jwt) {
+        byte[] hash = SHA256.get().digest(jwt.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
@@ -0,0 +1,90 @@
+package pe.com.ikaza.backend.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Verificación de la firma de las notificaciones de Mercado Pago.
+ * El header x-signature trae "ts=...,v1=..." donde v1 es el HMAC-SHA256 (hex) del
+ * manifiesto "id:{data.id};request-id:{x-request-id};ts:{ts};" con la clave secreta
+ * del webhook. Las partes sin valor se omiten del manifiesto.
+ */
+@Component
+@Slf4j
+public class FirmaWebhookMercadoPago {
+
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final SecretKeySpec clave;
+
+    public FirmaWebhookMercadoPago(@Value("${mercadopago.webhook.secret:}") String secreto) {
+        if (secreto == null || secreto.isBlank()) {
+            // Sin clave no se puede validar nada: se rechazan todas las notificaciones
+            log.warn("mercadopago.webhook.secret no configurado, se rechazarán los webhooks de Mercado Pago");
+            this.clave = null;
+        } else {
+            this.clave = new SecretKeySpec(secreto.getBytes(StandardCharsets.UTF_8), ALGORITMO);
+        }
+    }
+
+    /**
+     * true si x-signature corresponde al id del recurso y al x-request-id recibidos
+     */
+    public boolean esValida(String firma, String requestId, String idRecurso) {
+        if (clave == null || firma == null) {
+            return false;
+        }
+
+        String ts = null;
+        String v1 = null;
+        for (String parte : firma.split(",")) {
+            int igual = parte.indexOf('=');
+            if (igual < 0) {
+                continue;
+            }
+            String nombre = parte.substring(0, igual).trim();
+            String valor = parte.substring(igual + 1).trim();
+            if ("ts".equals(nombre)) {
+                ts = valor;
+            } else if ("v1".equals(nombre)) {
+                v1 = valor;
+            }
+        }
+        if (ts == null || v1 == null) {
+            return false;
+        }
+
+        StringBuilder manifiesto = new StringBuilder();
+        if (idRecurso != null && !idRecurso.isBlank()) {
+            // Mercado Pago firma los ids alfanuméricos en minúsculas
+            manifiesto.append("id:").append(idRecurso.toLowerCase()).append(';');
+        }
+        if (requestId != null && !requestId.isBlank()) {
+            manifiesto.append("request-id:").append(requestId).append(';');
+        }
+        manifiesto.append("ts:").append(ts).append(';');
+
+        byte[] esperada;
+        byte[] recibida;
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(clave);
+            esperada = mac.doFinal(manifiesto.toString().getBytes(StandardCharsets.UTF_8));
+            recibida = HexFormat.of().parseHex(v1);
+        } catch (IllegalArgumentException e) {
+            return false;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("No se pudo calcular la firma del webhook: " + e.getMessage());
+        }
+        // Comparación en tiempo constante
+        return MessageDigest.isEqual(esperada, recibida);
+    }
+}
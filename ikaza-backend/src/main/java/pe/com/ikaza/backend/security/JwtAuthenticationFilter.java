@@ -1,5 +1,6 @@
 package pe.com.ikaza.backend.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,16 +8,18 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import pe.com.ikaza.backend.security.CacheTokensVerificados.TokenVerificado;
+import pe.com.ikaza.backend.security.UserDetailsServiceImpl.UsuarioCargado;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
 
 /**
  * Filtro JWT
@@ -33,16 +36,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
-    // Rutas públicas excluidas del filtro
-    private static final List<String> PUBLIC_URLS = Arrays.asList(
-            "/api/auth/registro",
-            "/api/auth/login",
-            "/api/auth/refresh",
-            "/api/auth/verificar-email",
-            "/api/public",
-            "/api/google-maps/",
-            "/api/categorias/"
-    );
+    @Autowired
+    private RevocacionTokens revocacionTokens;
+
+    @Autowired
+    private CacheTokensVerificados cacheTokens;
+
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
+
+    @Autowired
+    private RutasPublicas rutasPublicas;
 
     @Override
     protected void doFilterInternal(
@@ -69,10 +73,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
 
-            if (jwtUtils.validateJwtToken(jwt)) {
-                String email = jwtUtils.getUserEmailFromJwtToken(jwt);
+            TokenVerificado verificado = cacheTokens.obtener(jwt);
+            if (verificado == null) {
+                verificado = verificarToken(jwt);
+            } else if (revocacionTokens.estaRevocado(verificado.idUsuario(), verificado.emitido())) {
+                verificado = null;
+            }
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            if (verificado != null) {
+                UserDetails userDetails = verificado.usuario();
+                String email = userDetails.getUsername();
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -90,7 +100,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 logger.debug("Usuario autenticado: {} - URI: {}", email, requestURI);
             } else {
-                logger.warn("Token JWT inválido - URI: {}", requestURI);
+                logger.warn("Token JWT inválido o revocado - URI: {}", requestURI);
             }
 
         } catch (Exception e) {
@@ -101,6 +111,51 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Verifica el token (firma, expiración y revocación) y guarda el resultado en caché.
+     * Devuelve null si no es válido.
+     *
+     * En modo sin estado (jwt.stateless) y si el token trae id y rol firmados, el usuario
+     * se arma solo con los claims; si no (refresh tokens, tokens antiguos), se carga desde
+     * la BD. En ambos casos la entrada guarda el ID del usuario y la revocación en memoria
+     * (inactivos, bloqueos y cortes) se comprueba aquí y en cada acierto de la caché, así
+     * una desactivación concurrente con esta carga no deja el token aceptado en caché.
+     */
+    private TokenVerificado verificarToken(String jwt) {
+        Claims claims = jwtUtils.validarYObtenerClaims(jwt);
+        if (claims == null) {
+            return null;
+        }
+
+        Integer idUsuario = claims.get(JwtUtils.CLAIM_ID_USUARIO, Integer.class);
+        String rol = claims.get(JwtUtils.CLAIM_ROL, String.class);
+        UserDetails userDetails;
+
+        if (stateless && idUsuario != null && rol != null) {
+            userDetails = User.withUsername(claims.getSubject())
+                    .password("")
+                    .authorities(rol)
+                    .build();
+        } else {
+            UsuarioCargado cargado = userDetailsService.cargarConId(claims.getSubject());
+            userDetails = cargado.detalles();
+            idUsuario = cargado.idUsuario();
+        }
+
+        if (revocacionTokens.estaRevocado(idUsuario, claims.getIssuedAt())) {
+            return null;
+        }
+
+        // En caché no se guarda el hash de la contraseña
+        TokenVerificado verificado = new TokenVerificado(
+                User.withUserDetails(userDetails).password("").build(),
+                idUsuario,
+                claims.getIssuedAt(),
+                claims.getExpiration());
+        cacheTokens.guardar(jwt, verificado);
+        return verificado;
+    }
+
     /**
      * Extraer token JWT del header Authorization
      */
@@ -119,7 +174,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      */
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String path = request.getRequestURI();
-        return PUBLIC_URLS.stream().anyMatch(path::startsWith);
+        return rutasPublicas.omitirFiltro(request);
     }
 }
\ No newline at end of file
@@ -2,10 +2,12 @@ package pe.com.ikaza.backend.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,6 +27,9 @@ public class JwtUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    public static final String CLAIM_ID_USUARIO = "uid";
+    public static final String CLAIM_ROL = "rol";
+
     @Value("${jwt.secret:miSecretoSuperSeguroParaProduccionDebeSerMuyLargoYComplejo2024!}")
     private String jwtSecret;
 
@@ -34,6 +39,18 @@ public class JwtUtils {
     @Value("${jwt.refresh-expiration:604800000}")
     private long refreshExpiration;
 
+    // Clave y parser se construyen una sola vez; ambos son inmutables y seguros entre hilos
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
     /**
      * Generar token JWT desde Authentication
      */
@@ -47,47 +64,46 @@ public class JwtUtils {
      */
     public String generateTokenFromUsername(String email) {
         return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(new Date())
-¿                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey())
+                .subject(email)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
-     * Generar Refresh Token (duración mayor)
+     * Generar token JWT con id de usuario y rol firmados como claims,
+     * para autenticar sin consultar la BD en cada petición
      */
-    public String generateRefreshToken(String email) {
+    public String generateTokenFromUsername(String email, Integer idUsuario, String rol) {
         return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + refreshExpiration))
-                .signWith(getSigningKey())
+                .subject(email)
+                .claim(CLAIM_ID_USUARIO, idUsuario)
+                .claim(CLAIM_ROL, rol)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
-     * Obtener email del token JWT
+     * Generar Refresh Token (duración mayor)
      */
-    public String getUserEmailFromJwtToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    public String generateRefreshToken(String email) {
+        return Jwts.builder()
+                .subject(email)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + refreshExpiration))
+                .signWith(signingKey)
+                .compact();
     }
 
     /**
-     * Validar token JWT (Método actualizado: usa Jwts.parser())
+     * Valida el token y devuelve sus claims en un solo parseo (null si no es válido)
      */
-    public boolean validateJwtToken(String authToken) {
+    public Claims validarYObtenerClaims(String token) {
         try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (MalformedJwtException e) {
             logger.error("Token JWT malformado: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -99,35 +115,35 @@ public class JwtUtils {
         } catch (Exception e) {
             logger.error("Error al validar token JWT (posiblemente firma inválida): {}", e.getMessage());
         }
-        return false;
+        return null;
     }
 
     /**
-     * Verificar si el token está expirado (Método actualizado: usa Jwts.parser())
+     * Obtener email del token JWT
+     */
+    public String getUserEmailFromJwtToken(String token) {
+        return parser.parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    /**
+     * Validar token JWT
+     */
+    public boolean validateJwtToken(String authToken) {
+        return validarYObtenerClaims(authToken) != null;
+    }
+
+    /**
+     * Verificar si el token está expirado
      */
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Claims claims = parser.parseSignedClaims(token).getPayload();
             return claims.getExpiration().before(new Date());
-        } catch (ExpiredJwtException e) {
-            return true;
         } catch (Exception e) {
             return true;
         }
     }
 
-    /**
-     * Obtener clave de firma segura
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     /**
      * Obtener tiempo de expiración en milisegundos
      */
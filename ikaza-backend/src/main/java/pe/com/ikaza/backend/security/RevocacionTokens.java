@@ -0,0 +1,153 @@
+package pe.com.ikaza.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pe.com.ikaza.backend.repository.RestriccionUsuarioView;
+import pe.com.ikaza.backend.repository.UsuarioRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Revocación de tokens en memoria para la autenticación sin consulta a BD.
+ * - Usuarios inactivos, bloqueos temporales y cortes de tokens (tokens_revocados_hasta)
+ *   se releen de la BD cada jwt.revocacion.refresco-ms, así un cambio hecho en otra
+ *   instancia se aplica aquí en ese intervalo.
+ * - Los cambios hechos en esta instancia se aplican al instante y se conservan
+ *   un par de intervalos para que una relectura anterior al commit no los pise.
+ */
+@Component
+public class RevocacionTokens {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocacionTokens.class);
+
+    private final UsuarioRepository usuarioRepository;
+    private final long ventanaCortesMs;
+
+    /** Última foto leída de la BD */
+    private volatile Set<Integer> inactivos = Set.of();
+    private volatile Map<Integer, Long> cortes = Map.of();
+    private volatile Map<Integer, Long> bloqueos = Map.of();
+
+    /** Cambios locales recientes (true = inactivo) */
+    private final Cache<Integer, Boolean> estadosLocales;
+    private final Cache<Integer, Long> cortesLocales;
+    private final Cache<Integer, Long> bloqueosLocales;
+
+    public RevocacionTokens(UsuarioRepository usuarioRepository,
+                            @Value("${jwt.expiration:86400000}") long jwtExpiration,
+                            @Value("${jwt.refresh-expiration:604800000}") long refreshExpiration,
+                            @Value("${jwt.revocacion.refresco-ms:5000}") long refrescoMs) {
+        this.usuarioRepository = usuarioRepository;
+        // Los refresh tokens también se aceptan como bearer: el corte debe cubrir su vida
+        this.ventanaCortesMs = Math.max(jwtExpiration, refreshExpiration);
+
+        Duration retencion = Duration.ofMillis(refrescoMs * 2);
+        this.estadosLocales = Caffeine.newBuilder().expireAfterWrite(retencion).build();
+        this.cortesLocales = Caffeine.newBuilder().expireAfterWrite(retencion).build();
+        this.bloqueosLocales = Caffeine.newBuilder().expireAfterWrite(retencion).build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarInicial() {
+        refrescar();
+        logger.info("{} usuarios inactivos, {} bloqueados y {} cortes de tokens cargados",
+                inactivos.size(), bloqueos.size(), cortes.size());
+    }
+
+    /**
+     * Relee de la BD los inactivos, los bloqueos vigentes y los cortes de tokens
+     */
+    @Scheduled(initialDelayString = "${jwt.revocacion.refresco-ms:5000}",
+               fixedDelayString = "${jwt.revocacion.refresco-ms:5000}")
+    public void refrescar() {
+        try {
+            LocalDateTime ahora = LocalDateTime.now();
+            Set<Integer> nuevosInactivos = new HashSet<>(usuarioRepository.findIdsInactivos());
+            Map<Integer, Long> nuevosBloqueos = aMapa(usuarioRepository.findBloqueosVigentes(ahora));
+            Map<Integer, Long> nuevosCortes = aMapa(usuarioRepository.findRevocacionesDesde(
+                    ahora.minus(Duration.ofMillis(ventanaCortesMs))));
+
+            inactivos = nuevosInactivos;
+            bloqueos = nuevosBloqueos;
+            cortes = nuevosCortes;
+        } catch (Exception e) {
+            // Se conserva la foto anterior hasta la próxima relectura
+            logger.error("No se pudo refrescar la revocación de tokens: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Desactiva al usuario y revoca sus tokens emitidos hasta ahora
+     */
+    public void desactivar(Integer idUsuario) {
+        estadosLocales.put(idUsuario, true);
+        revocarTokens(idUsuario);
+    }
+
+    /**
+     * Reactiva al usuario (los tokens anteriores a la desactivación siguen revocados)
+     */
+    public void activar(Integer idUsuario) {
+        estadosLocales.put(idUsuario, false);
+    }
+
+    /**
+     * Invalida los tokens del usuario emitidos antes de este momento
+     */
+    public void revocarTokens(Integer idUsuario) {
+        // iat del JWT tiene precisión de segundos
+        cortesLocales.put(idUsuario, System.currentTimeMillis() / 1000 * 1000);
+    }
+
+    /**
+     * Rechaza los tokens del usuario mientras dure el bloqueo por intentos fallidos
+     */
+    public void bloquear(Integer idUsuario, LocalDateTime hasta) {
+        bloqueosLocales.put(idUsuario, aMillis(hasta));
+    }
+
+    public boolean estaRevocado(Integer idUsuario, Date emitido) {
+        Boolean inactivoLocal = estadosLocales.getIfPresent(idUsuario);
+        if (inactivoLocal != null ? inactivoLocal : inactivos.contains(idUsuario)) {
+            return true;
+        }
+
+        long ahora = System.currentTimeMillis();
+        if (mayor(bloqueos.get(idUsuario), bloqueosLocales.getIfPresent(idUsuario)) > ahora) {
+            return true;
+        }
+
+        long corte = mayor(cortes.get(idUsuario), cortesLocales.getIfPresent(idUsuario));
+        return corte > 0 && (emitido == null || emitido.getTime() < corte);
+    }
+
+    private static long mayor(Long a, Long b) {
+        return Math.max(a != null ? a : 0L, b != null ? b : 0L);
+    }
+
+    private static Map<Integer, Long> aMapa(Iterable<RestriccionUsuarioView> filas) {
+        Map<Integer, Long> mapa = new HashMap<>();
+        for (RestriccionUsuarioView fila : filas) {
+            mapa.put(fila.getIdUsuario(), aMillis(fila.getHasta()));
+        }
+        return mapa;
+    }
+
+    private static long aMillis(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,179 @@
+package pe.com.ikaza.backend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rutas públicas usadas por SecurityConfig (permitAll) y por JwtAuthenticationFilter
+ * (rutas donde ni siquiera se lee el token).
+ * Se compilan al arrancar en un trie de prefijos; la consulta recorre la URI
+ * carácter a carácter sin crear objetos.
+ */
+@Component
+public class RutasPublicas {
+
+    /**
+     * Ruta pública. "metodo" null = cualquier método. Un patrón terminado en "/**"
+     * cubre la ruta y todo lo que cuelga de ella; uno terminado en "*" cubre cualquier
+     * URI que empiece con el texto previo (como String.startsWith).
+     */
+    private record Ruta(String metodo, String patron) {
+    }
+
+    /** Reglas permitAll de SecurityConfig */
+    private static final List<Ruta> PERMITIDAS = List.of(
+            new Ruta(null, "/api/auth/**"),
+            new Ruta(null, "/api/public/**"),
+            new Ruta(null, "/api/contacto/**"),
+            new Ruta("GET", "/api/productos/**"),
+            new Ruta("GET", "/api/categorias/**"),
+            // Notificaciones de Mercado Pago: llegan sin token y se validan por
+            // firma en WebhookController (FirmaWebhookMercadoPago)
+            new Ruta("POST", "/api/webhooks/mercadopago")
+    );
+
+    /** Prefijos en los que JwtAuthenticationFilter no procesa el token */
+    private static final List<Ruta> SIN_FILTRO = List.of(
+            new Ruta(null, "/api/auth/registro*"),
+            new Ruta(null, "/api/auth/login*"),
+            new Ruta(null, "/api/auth/refresh*"),
+            new Ruta(null, "/api/auth/verificar-email*"),
+            new Ruta(null, "/api/public*"),
+            new Ruta(null, "/api/google-maps/*"),
+            new Ruta(null, "/api/categorias/*"),
+            new Ruta("POST", "/api/webhooks/mercadopago")
+    );
+
+    private static final int CUALQUIER_METODO = 0x7F;
+
+    private final Nodo permitidas = new Nodo();
+    private final Nodo sinFiltro = new Nodo();
+
+    public RutasPublicas() {
+        registrar(permitidas, PERMITIDAS);
+        registrar(sinFiltro, SIN_FILTRO);
+    }
+
+    /**
+     * La petición no requiere autenticación (SecurityConfig)
+     */
+    public boolean esPermitida(HttpServletRequest request) {
+        return coincide(permitidas, request);
+    }
+
+    /**
+     * El filtro JWT puede saltarse esta petición
+     */
+    public boolean omitirFiltro(HttpServletRequest request) {
+        return coincide(sinFiltro, request);
+    }
+
+    private static boolean coincide(Nodo raiz, HttpServletRequest request) {
+        int bit = bitMetodo(request.getMethod());
+        if (bit == 0) {
+            return false;
+        }
+        String uri = request.getRequestURI();
+        Nodo nodo = raiz;
+        for (int i = request.getContextPath().length(); ; i++) {
+            if ((nodo.inicio & bit) != 0) {
+                return true;
+            }
+            boolean finSegmento = i == uri.length() || uri.charAt(i) == '/';
+            if (finSegmento && (nodo.prefijo & bit) != 0) {
+                return true;
+            }
+            if (i == uri.length()) {
+                return (nodo.exacta & bit) != 0;
+            }
+            nodo = nodo.hijo(uri.charAt(i));
+            if (nodo == null) {
+                return false;
+            }
+        }
+    }
+
+    private static void registrar(Nodo raiz, List<Ruta> rutas) {
+        for (Ruta ruta : rutas) {
+            int metodos = ruta.metodo() == null ? CUALQUIER_METODO : bitMetodo(ruta.metodo());
+            if (metodos == 0) {
+                throw new IllegalArgumentException("Método no soportado: " + ruta.metodo());
+            }
+            registrar(raiz, metodos, ruta.patron());
+        }
+    }
+
+    private static void registrar(Nodo raiz, int metodos, String patron) {
+        boolean prefijo = patron.endsWith("/**");
+        boolean inicio = !prefijo && patron.endsWith("*");
+        String ruta = prefijo ? patron.substring(0, patron.length() - 3)
+                : inicio ? patron.substring(0, patron.length() - 1) : patron;
+        if (ruta.indexOf('*') >= 0) {
+            throw new IllegalArgumentException("Solo se admiten rutas exactas o terminadas en /** o *: " + patron);
+        }
+        Nodo nodo = raiz;
+        for (int i = 0; i < ruta.length(); i++) {
+            nodo = nodo.hijoOCrear(ruta.charAt(i));
+        }
+        if (prefijo) {
+            nodo.prefijo |= metodos;
+        } else if (inicio) {
+            nodo.inicio |= metodos;
+        } else {
+            nodo.exacta |= metodos;
+        }
+    }
+
+    private static int bitMetodo(String metodo) {
+        return switch (metodo) {
+            case "GET" -> 1;
+            case "POST" -> 1 << 1;
+            case "PUT" -> 1 << 2;
+            case "DELETE" -> 1 << 3;
+            case "PATCH" -> 1 << 4;
+            case "HEAD" -> 1 << 5;
+            case "OPTIONS" -> 1 << 6;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Nodo del trie: hijos ordenados por carácter (búsqueda binaria) y
+     * máscaras de métodos para coincidencia exacta, por segmento o por inicio de texto
+     */
+    private static final class Nodo {
+        private char[] claves = new char[0];
+        private Nodo[] hijos = new Nodo[0];
+        private int exacta;
+        private int prefijo;
+        private int inicio;
+
+        private Nodo hijo(char c) {
+            int i = Arrays.binarySearch(claves, c);
+            return i >= 0 ? hijos[i] : null;
+        }
+
+        private Nodo hijoOCrear(char c) {
+            int i = Arrays.binarySearch(claves, c);
+            if (i >= 0) {
+                return hijos[i];
+            }
+            int posicion = -i - 1;
+            char[] nuevasClaves = new char[claves.length + 1];
+            Nodo[] nuevosHijos = new Nodo[hijos.length + 1];
+            System.arraycopy(claves, 0, nuevasClaves, 0, posicion);
+            System.arraycopy(hijos, 0, nuevosHijos, 0, posicion);
+            System.arraycopy(claves, posicion, nuevasClaves, posicion + 1, claves.length - posicion);
+            System.arraycopy(hijos, posicion, nuevosHijos, posicion + 1, hijos.length - posicion);
+            Nodo nuevo = new Nodo();
+            nuevasClaves[posicion] = c;
+            nuevosHijos[posicion] = nuevo;
+            claves = nuevasClaves;
+            hijos = nuevosHijos;
+            return nuevo;
+        }
+    }
+}
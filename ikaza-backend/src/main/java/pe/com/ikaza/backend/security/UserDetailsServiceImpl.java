@@ -22,12 +22,26 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         @Autowired
         private UsuarioRepository usuarioRepository;
 
+        /**
+         * Usuario autenticable junto con su ID, para revalidar la revocación sin volver a la BD
+         */
+        public record UsuarioCargado(UserDetails detalles, Integer idUsuario) {
+        }
+
         /**
          * Cargar usuario por email para autenticación
          */
         @Override
         @Transactional(readOnly = true)
         public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+                return cargarConId(email).detalles();
+        }
+
+        /**
+         * Igual que loadUserByUsername, pero devuelve también el ID del usuario
+         */
+        @Transactional(readOnly = true)
+        public UsuarioCargado cargarConId(String email) throws UsernameNotFoundException {
                 Usuario usuario = usuarioRepository.findByEmail(email)
                                 .orElseThrow(() -> new UsernameNotFoundException(
                                                 "Usuario no encontrado con email: " + email));
@@ -44,7 +58,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                                 new SimpleGrantedAuthority(usuario.getRol()));
 
                 // Retornar UserDetails
-                return org.springframework.security.core.userdetails.User.builder()
+                UserDetails detalles = org.springframework.security.core.userdetails.User.builder()
                                 .username(usuario.getEmail())
                                 .password(usuario.getPassword())
                                 .authorities(authorities)
@@ -53,6 +67,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                                 .credentialsExpired(false)
                                 .disabled(!usuario.getActivo())
                                 .build();
+                return new UsuarioCargado(detalles, usuario.getIdUsuario());
         }
 
         /**
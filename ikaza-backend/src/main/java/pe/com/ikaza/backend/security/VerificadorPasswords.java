@@ -0,0 +1,172 @@
+package pe.com.ikaza.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verificación de contraseñas del login en un pool acotado.
+ * - BCrypt corre en hilos propios con cola acotada: una ráfaga de logins
+ *   no consume CPU ni conexiones más allá de ese límite. La petición espera
+ *   el resultado (hasta espera-ms) sin transacción abierta.
+ * - Si la cola está llena o la espera vence, el login falla rápido.
+ * - Indica cuándo un hash quedó con un costo menor al configurado para re-codificarlo.
+ */
+@Component
+@Slf4j
+public class VerificadorPasswords {
+
+    private static final int COSTO_MAXIMO = 14;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor ejecutor;
+    private final long esperaMs;
+
+    private final Timer tiempoVerificar;
+    private final Timer tiempoCodificar;
+    private final Counter rechazados;
+
+    public VerificadorPasswords(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${seguridad.bcrypt.hilos:2}") int hilos,
+            @Value("${seguridad.bcrypt.cola.capacidad:8}") int capacidadCola,
+            @Value("${seguridad.bcrypt.espera-ms:5000}") long esperaMs,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxConexionesBd) {
+        this.passwordEncoder = passwordEncoder;
+        this.esperaMs = esperaMs;
+
+        // Cada login verificado abre luego una transacción corta: no se admiten más
+        // logins en vuelo (hilos + cola) que conexiones tiene el pool de la BD
+        int colaMaxima = Math.max(1, maxConexionesBd - hilos);
+        if (capacidadCola > colaMaxima) {
+            log.warn("seguridad.bcrypt.cola.capacidad={} supera el pool de BD, se usa {}", capacidadCola, colaMaxima);
+            capacidadCola = colaMaxima;
+        }
+
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        this.tiempoVerificar = Timer.builder("auth.bcrypt")
+                .tag("operacion", "verificar")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.tiempoCodificar = Timer.builder("auth.bcrypt")
+                .tag("operacion", "codificar")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rechazados = Counter.builder("auth.bcrypt.rechazados")
+                .description("Logins rechazados por pool de BCrypt saturado")
+                .register(meterRegistry);
+        Gauge.builder("auth.bcrypt.cola", ejecutor, e -> e.getQueue().size())
+                .description("Verificaciones de contraseña en espera")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Compara la contraseña con el hash guardado usando el pool de BCrypt
+     */
+    public boolean verificar(String password, String hash) {
+        if (password == null || hash == null) {
+            return false;
+        }
+        return ejecutar(() -> tiempoVerificar.recordCallable(() -> passwordEncoder.matches(password, hash)));
+    }
+
+    /**
+     * Codifica la contraseña con el costo configurado usando el pool de BCrypt
+     */
+    public String codificar(String password) {
+        return ejecutar(() -> tiempoCodificar.recordCallable(() -> passwordEncoder.encode(password)));
+    }
+
+    /**
+     * true si el hash se generó con un costo menor al configurado y conviene re-codificarlo.
+     * Un costo mayor no se reporta: bajar seguridad.bcrypt.costo no reescribe hashes
+     */
+    public boolean requiereRecodificar(String hash) {
+        return hash != null && passwordEncoder.upgradeEncoding(hash);
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        Future<T> futuro;
+        try {
+            futuro = ejecutor.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            rechazados.increment();
+            log.warn("Pool de BCrypt saturado, login rechazado");
+            throw new RuntimeException("Servicio de autenticación saturado. Intente nuevamente.");
+        }
+        try {
+            return futuro.get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rechazados.increment();
+            throw new RuntimeException("Tiempo de espera agotado al verificar la contraseña");
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Verificación de contraseña interrumpida");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error al verificar la contraseña: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Costo de BCrypt a usar. Con objetivoMs > 0 sube desde el costo mínimo mientras
+     * un hash tarde menos que el objetivo en este servidor (cada +1 duplica el tiempo).
+     */
+    public static int calibrarCosto(int costoMinimo, long objetivoMs) {
+        if (objetivoMs <= 0) {
+            return costoMinimo;
+        }
+        int costo = costoMinimo;
+        new BCryptPasswordEncoder(costo).encode("calentamiento");
+        long inicio = System.nanoTime();
+        new BCryptPasswordEncoder(costo).encode("calibracion");
+        long ms = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+
+        while (costo < COSTO_MAXIMO && ms * 2 <= objetivoMs) {
+            costo++;
+            ms *= 2;
+        }
+        log.info("Costo de BCrypt calibrado: {} (~{} ms por hash, objetivo {} ms)", costo, ms, objetivoMs);
+        return costo;
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdown();
+        try {
+            if (!ejecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                ejecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ejecutor.shutdownNow();
+        }
+    }
+}
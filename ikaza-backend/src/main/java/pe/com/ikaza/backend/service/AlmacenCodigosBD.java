@@ -0,0 +1,73 @@
+package pe.com.ikaza.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pe.com.ikaza.backend.entity.CodigoVerificacion;
+import pe.com.ikaza.backend.entity.CodigoVerificacion.TipoVerificacion;
+import pe.com.ikaza.backend.repository.CodigoVerificacionRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Códigos guardados en la tabla codigos_verificacion (modo por defecto)
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "verificacion.almacen", havingValue = "bd", matchIfMissing = true)
+public class AlmacenCodigosBD implements AlmacenCodigosVerificacion {
+
+    private final CodigoVerificacionRepository codigoRepository;
+
+    @Override
+    public void guardar(TipoVerificacion tipo, String clave, String codigo) {
+        CodigoVerificacion.CodigoVerificacionBuilder builder = CodigoVerificacion.builder()
+                .codigo(codigo)
+                .tipo(tipo)
+                .usado(false);
+        if (tipo == TipoVerificacion.EMAIL) {
+            builder.email(clave);
+        } else {
+            builder.telefono(clave);
+        }
+        codigoRepository.save(builder.build());
+    }
+
+    @Override
+    @Transactional
+    public ResultadoVerificacion verificar(TipoVerificacion tipo, String clave, String codigo) {
+        Optional<CodigoVerificacion> pendiente = tipo == TipoVerificacion.EMAIL
+                ? codigoRepository.findTopByEmailAndTipoAndUsadoFalseOrderByFechaCreacionDesc(clave, tipo)
+                : codigoRepository.findTopByTelefonoAndTipoAndUsadoFalseOrderByFechaCreacionDesc(clave, tipo);
+        if (pendiente.isEmpty()) {
+            return ResultadoVerificacion.SIN_CODIGO;
+        }
+
+        CodigoVerificacion codigoVerificacion = pendiente.get();
+        if (!codigoVerificacion.isValido(codigo)) {
+            return ResultadoVerificacion.INVALIDO;
+        }
+
+        // Marcar código como usado
+        codigoVerificacion.setUsado(true);
+        codigoVerificacion.setFechaUso(LocalDateTime.now());
+        codigoRepository.save(codigoVerificacion);
+        return ResultadoVerificacion.VALIDO;
+    }
+
+    /**
+     * Tarea programada para limpiar códigos expirados (cada hora)
+     */
+    @Scheduled(cron = "0 0 * * * *")
+    @Transactional
+    public void limpiarCodigosExpirados() {
+        LocalDateTime hace24Horas = LocalDateTime.now().minusHours(24);
+        codigoRepository.eliminarCodigosExpirados(hace24Horas);
+        log.info("🧹 Códigos expirados eliminados");
+    }
+}
@@ -0,0 +1,136 @@
+package pe.com.ikaza.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import pe.com.ikaza.backend.entity.CodigoVerificacion;
+import pe.com.ikaza.backend.entity.CodigoVerificacion.TipoVerificacion;
+import pe.com.ikaza.backend.repository.CodigoVerificacionRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Códigos activos en memoria, por tipo + email/teléfono, con expiración y contador de intentos.
+ * La tabla codigos_verificacion solo recibe la auditoría, escrita en segundo plano.
+ * Pensado para una sola instancia: con varias, los códigos no se comparten.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "verificacion.almacen", havingValue = "memoria")
+public class AlmacenCodigosMemoria implements AlmacenCodigosVerificacion {
+
+    private final CodigoVerificacionRepository codigoRepository;
+    private final Cache<String, CodigoActivo> codigos;
+    private final int maxIntentos;
+    private final ThreadPoolExecutor auditoria;
+
+    public AlmacenCodigosMemoria(
+            CodigoVerificacionRepository codigoRepository,
+            @Value("${verificacion.codigo.ttl-minutos:10}") long ttlMinutos,
+            @Value("${verificacion.memoria.tamano-maximo:100000}") long tamanoMaximo,
+            @Value("${verificacion.max-intentos:5}") int maxIntentos,
+            @Value("${verificacion.auditoria.capacidad:1000}") int capacidadAuditoria) {
+        this.codigoRepository = codigoRepository;
+        this.maxIntentos = maxIntentos;
+        this.codigos = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .build();
+        this.auditoria = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadAuditoria),
+                r -> {
+                    Thread t = new Thread(r, "auditoria-codigos");
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @Override
+    public void guardar(TipoVerificacion tipo, String clave, String codigo) {
+        codigos.put(clave(tipo, clave), new CodigoActivo(codigo));
+        auditar(() -> {
+            CodigoVerificacion.CodigoVerificacionBuilder builder = CodigoVerificacion.builder()
+                    .codigo(codigo)
+                    .tipo(tipo)
+                    .usado(false);
+            if (tipo == TipoVerificacion.EMAIL) {
+                builder.email(clave);
+            } else {
+                builder.telefono(clave);
+            }
+            codigoRepository.save(builder.build());
+        });
+    }
+
+    @Override
+    public ResultadoVerificacion verificar(TipoVerificacion tipo, String clave, String codigo) {
+        String llave = clave(tipo, clave);
+        CodigoActivo activo = codigos.getIfPresent(llave);
+        if (activo == null) {
+            return ResultadoVerificacion.SIN_CODIGO;
+        }
+
+        if (activo.intentos.incrementAndGet() > maxIntentos) {
+            codigos.asMap().remove(llave, activo);
+            return ResultadoVerificacion.BLOQUEADO;
+        }
+        if (!activo.codigo.equals(codigo)) {
+            return ResultadoVerificacion.INVALIDO;
+        }
+        // remove(llave, activo) garantiza que el código se use una sola vez
+        if (!codigos.asMap().remove(llave, activo)) {
+            return ResultadoVerificacion.SIN_CODIGO;
+        }
+
+        LocalDateTime fechaUso = LocalDateTime.now();
+        auditar(() -> codigoRepository.marcarUsado(tipo, clave, codigo, fechaUso));
+        return ResultadoVerificacion.VALIDO;
+    }
+
+    private void auditar(Runnable escritura) {
+        try {
+            auditoria.execute(() -> {
+                try {
+                    escritura.run();
+                } catch (Exception e) {
+                    log.warn("No se pudo registrar la auditoría del código: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Cola de auditoría de códigos llena, se omite el registro");
+        }
+    }
+
+    private static String clave(TipoVerificacion tipo, String clave) {
+        return tipo.name() + ":" + clave;
+    }
+
+    @PreDestroy
+    public void detener() {
+        auditoria.shutdown();
+        try {
+            auditoria.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class CodigoActivo {
+        private final String codigo;
+        private final AtomicInteger intentos = new AtomicInteger();
+
+        private CodigoActivo(String codigo) {
+            this.codigo = codigo;
+        }
+    }
+}
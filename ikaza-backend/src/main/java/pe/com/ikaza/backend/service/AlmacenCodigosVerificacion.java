@@ -0,0 +1,28 @@
+package pe.com.ikaza.backend.service;
+
+import pe.com.ikaza.backend.entity.CodigoVerificacion.TipoVerificacion;
+
+/**
+ * Dónde se guardan los códigos de verificación activos.
+ * Se elige con verificacion.almacen: "bd" (tabla codigos_verificacion) o
+ * "memoria" (mapa con expiración; la tabla queda solo como auditoría).
+ */
+public interface AlmacenCodigosVerificacion {
+
+    /**
+     * Guarda el código activo para el email o teléfono (reemplaza al anterior)
+     */
+    void guardar(TipoVerificacion tipo, String clave, String codigo);
+
+    /**
+     * Comprueba el código y, si es correcto, lo marca como usado
+     */
+    ResultadoVerificacion verificar(TipoVerificacion tipo, String clave, String codigo);
+
+    enum ResultadoVerificacion {
+        VALIDO,
+        INVALIDO,
+        SIN_CODIGO,
+        BLOQUEADO
+    }
+}
@@ -1,25 +1,32 @@
 package pe.com.ikaza.backend.service;
 
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import pe.com.ikaza.backend.dto.request.LoginRequest;
 import pe.com.ikaza.backend.dto.request.RegistroRequest;
 import pe.com.ikaza.backend.dto.response.AuthResponse;
 import pe.com.ikaza.backend.entity.Usuario;
 import pe.com.ikaza.backend.repository.UsuarioRepository;
 import pe.com.ikaza.backend.security.JwtUtils;
+import pe.com.ikaza.backend.security.RevocacionTokens;
+import pe.com.ikaza.backend.security.VerificadorPasswords;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -39,7 +46,10 @@ public class AuthService {
     private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private VerificadorPasswords verificadorPasswords;
+
+    @Autowired
+    private RevocacionTokens revocacionTokens;
 
     @Autowired
     private JwtUtils jwtUtils;
@@ -47,6 +57,16 @@ public class AuthService {
     @Autowired
     private ClienteService clienteService;
 
+    private TransactionTemplate transaccionLectura;
+    private TransactionTemplate transaccionEscritura;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.transaccionEscritura = new TransactionTemplate(transactionManager);
+    }
+
     /**
      * REGISTRO: Crear nuevo usuario con email y password
      */
@@ -98,7 +118,8 @@ public class AuthService {
             clienteService.crearPerfilInicial(usuarioGuardado.getEmail()); 
             logger.info("Perfil Cliente inicial creado automáticamente para: {}", usuarioGuardado.getEmail());
             
-            String accessToken = jwtUtils.generateTokenFromUsername(usuarioGuardado.getEmail());
+            String accessToken = jwtUtils.generateTokenFromUsername(
+                    usuarioGuardado.getEmail(), usuarioGuardado.getIdUsuario(), usuarioGuardado.getRol());
             String refreshToken = jwtUtils.generateRefreshToken(usuarioGuardado.getEmail());
 
             // Guardar refresh token
@@ -117,13 +138,21 @@ public class AuthService {
 
     /**
      * LOGIN: Autenticar con email y password
+     * Fase 1 (lectura corta): carga el usuario una sola vez
+     * Fase 2 (sin transacción): verifica la contraseña en el pool de BCrypt
+     * Fase 3 (escritura corta): intentos fallidos, último acceso, refresh token y re-hash
+     * Así ninguna conexión del pool queda retenida mientras BCrypt espera o calcula.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse login(LoginRequest request) {
         logger.info("Intento de login para: {}", request.getEmail());
 
         try {
-            Usuario usuario = usuarioRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new BadCredentialsException("Credenciales inválidas"));
+            Usuario usuario = transaccionLectura.execute(status ->
+                    usuarioRepository.findByEmail(request.getEmail()).orElse(null));
+            if (usuario == null) {
+                throw new BadCredentialsException("Credenciales inválidas");
+            }
 
             if (usuario.estaBloqueado()) {
                 throw new RuntimeException("Usuario bloqueado temporalmente. Intente más tarde.");
@@ -133,36 +162,50 @@ public class AuthService {
                 throw new DisabledException("Usuario inactivo. Contacte al administrador.");
             }
 
-            try {
-                Authentication authentication = authenticationManager.authenticate(
-                        new UsernamePasswordAuthenticationToken(
-                                request.getEmail(),
-                                request.getPassword()));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (!verificadorPasswords.verificar(request.getPassword(), usuario.getPassword())) {
+                transaccionEscritura.executeWithoutResult(status ->
+                        usuarioRepository.findById(usuario.getIdUsuario()).ifPresent(actual -> {
+                            actual.incrementarIntentosFallidos();
+                            usuarioRepository.save(actual);
+                            if (actual.estaBloqueado()) {
+                                revocacionTokens.bloquear(actual.getIdUsuario(), actual.getBloqueadoHasta());
+                            }
+                        }));
 
-                usuario.resetearIntentosFallidos();
+                logger.warn("Credenciales inválidas para: {}", request.getEmail());
+                throw new BadCredentialsException("La contraseña es incorrecta");
+            }
 
-                usuario.setUltimoAcceso(LocalDateTime.now());
+            String nuevoHash = recodificarPassword(usuario, request.getPassword());
 
-                String accessToken = jwtUtils.generateJwtToken(authentication);
-                String refreshToken = jwtUtils.generateRefreshToken(usuario.getEmail());
+            Authentication authentication = new UsernamePasswordAuthenticationToken(
+                    usuario.getEmail(),
+                    null,
+                    List.of(new SimpleGrantedAuthority(usuario.getRol())));
 
-                usuario.setRefreshToken(refreshToken);
-                usuario.setTokenExpiracion(LocalDateTime.now().plusDays(7));
-                usuarioRepository.save(usuario);
+            SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                logger.info("Login exitoso para: {}", request.getEmail());
+            String accessToken = jwtUtils.generateTokenFromUsername(
+                    usuario.getEmail(), usuario.getIdUsuario(), usuario.getRol());
+            String refreshToken = jwtUtils.generateRefreshToken(usuario.getEmail());
 
-                return construirAuthResponse(usuario, accessToken, refreshToken, "Login exitoso");
+            Usuario actualizado = transaccionEscritura.execute(status -> {
+                Usuario actual = usuarioRepository.findById(usuario.getIdUsuario())
+                        .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+                actual.resetearIntentosFallidos();
+                actual.setUltimoAcceso(LocalDateTime.now());
+                actual.setRefreshToken(refreshToken);
+                actual.setTokenExpiracion(LocalDateTime.now().plusDays(7));
+                // Solo si nadie cambió la contraseña mientras se calculaba el nuevo hash
+                if (nuevoHash != null && usuario.getPassword().equals(actual.getPassword())) {
+                    actual.setPassword(nuevoHash);
+                }
+                return usuarioRepository.save(actual);
+            });
 
-            } catch (BadCredentialsException e) {
-                usuario.incrementarIntentosFallidos();
-                usuarioRepository.save(usuario);
+            logger.info("Login exitoso para: {}", request.getEmail());
 
-                logger.warn("Credenciales inválidas para: {}", request.getEmail());
-                throw new BadCredentialsException("La contraseña es incorrecta");
-            }
+            return construirAuthResponse(actualizado, accessToken, refreshToken, "Login exitoso");
 
         } catch (BadCredentialsException e) {
             throw e;
@@ -174,6 +217,25 @@ public class AuthService {
         }
     }
 
+    /**
+     * Re-hash con el costo actual si el guardado quedó con uno menor.
+     * Es opcional: si el pool de BCrypt está saturado se deja para el próximo login.
+     * @return el nuevo hash, o null si no corresponde o no se pudo calcular
+     */
+    private String recodificarPassword(Usuario usuario, String password) {
+        if (!verificadorPasswords.requiereRecodificar(usuario.getPassword())) {
+            return null;
+        }
+        try {
+            String nuevoHash = verificadorPasswords.codificar(password);
+            logger.info("Contraseña re-codificada con el costo actual para: {}", usuario.getEmail());
+            return nuevoHash;
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo re-codificar la contraseña de {}: {}", usuario.getEmail(), e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * REFRESH: Renovar access token usando refresh token
      */
@@ -181,11 +243,12 @@ public class AuthService {
         logger.info("Solicitando renovación de token");
 
         try {
-            if (!jwtUtils.validateJwtToken(refreshToken)) {
+            Claims claims = jwtUtils.validarYObtenerClaims(refreshToken);
+            if (claims == null) {
                 throw new RuntimeException("Refresh token inválido o expirado");
             }
 
-            String email = jwtUtils.getUserEmailFromJwtToken(refreshToken);
+            String email = claims.getSubject();
 
             Usuario usuario = usuarioRepository.findByEmail(email)
                     .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -198,7 +261,8 @@ public class AuthService {
                 throw new RuntimeException("Refresh token expirado");
             }
 
-            String newAccessToken = jwtUtils.generateTokenFromUsername(usuario.getEmail());
+            String newAccessToken = jwtUtils.generateTokenFromUsername(
+                    usuario.getEmail(), usuario.getIdUsuario(), usuario.getRol());
 
             logger.info("Token renovado para: {}", email);
 
@@ -216,11 +280,12 @@ public class AuthService {
     @Transactional(readOnly = true)
     public AuthResponse verificarToken(String token) {
         try {
-            if (!jwtUtils.validateJwtToken(token)) {
+            Claims claims = jwtUtils.validarYObtenerClaims(token);
+            if (claims == null) {
                 throw new RuntimeException("Token inválido o expirado");
             }
 
-            String email = jwtUtils.getUserEmailFromJwtToken(token);
+            String email = claims.getSubject();
             Usuario usuario = usuarioRepository.findByEmail(email)
                     .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
@@ -0,0 +1,48 @@
+package pe.com.ikaza.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pe.com.ikaza.backend.config.CacheConfig;
+import pe.com.ikaza.backend.event.ProductoModificadoEvent;
+
+/**
+ * Invalida la caché del catálogo cuando se confirma un cambio de producto o stock.
+ * Las entradas por ID se desalojan individualmente; las listas (top-N y más vendido)
+ * se limpian completas porque cualquier producto puede entrar o salir de ellas.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogoCacheInvalidador {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductoModificado(ProductoModificadoEvent evento) {
+        log.debug("Invalidando caché del catálogo: producto {} ({})", evento.idProducto(), evento.tipo());
+
+        desalojar(CacheConfig.CACHE_PRODUCTOS, evento.idProducto());
+        desalojar(CacheConfig.CACHE_PRODUCTO_DETALLE, evento.idProducto());
+        limpiar(CacheConfig.CACHE_PRODUCTOS_DESTACADOS);
+        limpiar(CacheConfig.CACHE_PRODUCTO_MAS_VENDIDO);
+    }
+
+    private void desalojar(String nombre, Long idProducto) {
+        Cache cache = cacheManager.getCache(nombre);
+        if (cache != null && idProducto != null) {
+            cache.evict(idProducto);
+        }
+    }
+
+    private void limpiar(String nombre) {
+        Cache cache = cacheManager.getCache(nombre);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package pe.com.ikaza.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cliente HTTP dedicado a la API de Mercado Pago.
+ * - Un único HttpClient del JDK (HTTP/2 con reutilización de conexiones) compartido.
+ * - Timeouts de conexión y de lectura por operación (crear preferencia / consultar pago).
+ * - Límite de llamadas concurrentes (bulkhead) para no agotar hilos si la pasarela se pone lenta.
+ * - Circuit breaker: tras N fallos seguidos se rechazan llamadas durante un tiempo.
+ * - Histograma de latencia en la métrica mercadopago.http (tags operacion, resultado).
+ */
+@Component
+@Slf4j
+public class ClientePasarelaMercadoPago {
+
+    public static final String OP_CREAR_PREFERENCIA = "crearPreferencia";
+    public static final String OP_CONSULTAR_PAGO = "consultarPago";
+
+    private final RestTemplate restTemplatePreferencias;
+    private final RestTemplate restTemplateConsultas;
+    private final Semaphore llamadasConcurrentes;
+    private final long esperaCupoMs;
+    private final MeterRegistry meterRegistry;
+
+    // Circuit breaker
+    private final int umbralFallos;
+    private final long tiempoAbiertoMs;
+    private final AtomicInteger fallosConsecutivos = new AtomicInteger();
+    private volatile long abiertoHasta = 0;
+
+    public ClientePasarelaMercadoPago(
+            MeterRegistry meterRegistry,
+            @Value("${mercadopago.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${mercadopago.http.preferencia.read-timeout-ms:8000}") long timeoutPreferenciaMs,
+            @Value("${mercadopago.http.consulta.read-timeout-ms:4000}") long timeoutConsultaMs,
+            @Value("${mercadopago.http.max-concurrentes:20}") int maxConcurrentes,
+            @Value("${mercadopago.http.espera-cupo-ms:500}") long esperaCupoMs,
+            @Value("${mercadopago.http.circuito.umbral-fallos:5}") int umbralFallos,
+            @Value("${mercadopago.http.circuito.tiempo-abierto-ms:30000}") long tiempoAbiertoMs) {
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+
+        this.restTemplatePreferencias = crearRestTemplate(httpClient, timeoutPreferenciaMs);
+        this.restTemplateConsultas = crearRestTemplate(httpClient, timeoutConsultaMs);
+        this.llamadasConcurrentes = new Semaphore(maxConcurrentes);
+        this.esperaCupoMs = esperaCupoMs;
+        this.meterRegistry = meterRegistry;
+        this.umbralFallos = umbralFallos;
+        this.tiempoAbiertoMs = tiempoAbiertoMs;
+    }
+
+    public ResponseEntity<String> crearPreferencia(String url, HttpEntity<?> request) {
+        return ejecutar(OP_CREAR_PREFERENCIA, restTemplatePreferencias, url, HttpMethod.POST, request);
+    }
+
+    public ResponseEntity<String> consultarPago(String url, HttpEntity<?> request) {
+        return ejecutar(OP_CONSULTAR_PAGO, restTemplateConsultas, url, HttpMethod.GET, request);
+    }
+
+    private ResponseEntity<String> ejecutar(String operacion, RestTemplate restTemplate,
+                                            String url, HttpMethod metodo, HttpEntity<?> request) {
+        if (System.currentTimeMillis() < abiertoHasta) {
+            registrar(operacion, "circuito-abierto", 0);
+            throw new IllegalStateException("Mercado Pago no disponible temporalmente (circuito abierto)");
+        }
+
+        boolean cupo;
+        try {
+            cupo = llamadasConcurrentes.tryAcquire(esperaCupoMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Llamada a Mercado Pago interrumpida", e);
+        }
+        if (!cupo) {
+            registrar(operacion, "saturado", 0);
+            throw new IllegalStateException("Demasiadas llamadas simultáneas a Mercado Pago");
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(url, metodo, request, String.class);
+            fallosConsecutivos.set(0);
+            registrar(operacion, "ok", System.nanoTime() - inicio);
+            return response;
+        } catch (HttpClientErrorException e) {
+            // Un 4xx es un error de la solicitud, no de disponibilidad de la pasarela
+            fallosConsecutivos.set(0);
+            registrar(operacion, "error-cliente", System.nanoTime() - inicio);
+            throw e;
+        } catch (RuntimeException e) {
+            registrar(operacion, "error", System.nanoTime() - inicio);
+            if (fallosConsecutivos.incrementAndGet() >= umbralFallos) {
+                abiertoHasta = System.currentTimeMillis() + tiempoAbiertoMs;
+                fallosConsecutivos.set(0);
+                log.error("Circuito de Mercado Pago abierto por {} ms tras {} fallos seguidos",
+                        tiempoAbiertoMs, umbralFallos);
+            }
+            throw e;
+        } finally {
+            llamadasConcurrentes.release();
+        }
+    }
+
+    private void registrar(String operacion, String resultado, long nanos) {
+        Timer.builder("mercadopago.http")
+                .description("Latencia de las llamadas a la API de Mercado Pago")
+                .tag("operacion", operacion)
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static RestTemplate crearRestTemplate(HttpClient httpClient, long readTimeoutMs) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(factory);
+    }
+}
@@ -13,6 +13,8 @@ import pe.com.ikaza.backend.entity.Cliente;
 import pe.com.ikaza.backend.entity.Usuario;
 import pe.com.ikaza.backend.repository.ClienteRepository;
 import pe.com.ikaza.backend.repository.UsuarioRepository;
+import pe.com.ikaza.backend.security.CacheTokensVerificados;
+import pe.com.ikaza.backend.security.RevocacionTokens;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -37,6 +39,12 @@ public class ClienteService {
     @Autowired
     private ClienteRepository clienteRepository;
 
+    @Autowired
+    private RevocacionTokens revocacionTokens;
+
+    @Autowired
+    private CacheTokensVerificados cacheTokens;
+
     // ===============================================
     // LÓGICA DE SINCRONIZACIÓN (Post-Registro/Login)
     // ===============================================
@@ -134,6 +142,7 @@ public class ClienteService {
 
         usuario.setActivo(true);
         usuarioRepository.save(usuario);
+        revocacionTokens.activar(id);
         logger.info("Usuario activado ID: {}", id);
     }
 
@@ -146,7 +155,10 @@ public class ClienteService {
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
 
         usuario.setActivo(false);
+        usuario.setTokensRevocadosHasta(LocalDateTime.now());
         usuarioRepository.save(usuario);
+        revocacionTokens.desactivar(id);
+        cacheTokens.invalidarUsuario(usuario.getEmail());
         logger.info("Usuario desactivado ID: {}", id);
     }
 
@@ -0,0 +1,117 @@
+package pe.com.ikaza.backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.com.ikaza.backend.repository.RepositorioCola;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Mecánica común de las tablas usadas como cola (notificaciones de pago, correos de salida).
+ * - reclamarLote toma filas con FOR UPDATE SKIP LOCKED y las marca como en proceso
+ *   hasta el fin del plazo de reclamo (fecha_proximo_intento).
+ * - liberarReclamosVencidos devuelve a la cola lo que una instancia caída dejó tomado.
+ * - siguienteIntento calcula la espera exponencial y si se agotaron los intentos.
+ * - La profundidad de la cola se publica como métrica con un valor cacheado, para
+ *   que cada lectura de métricas no ejecute un COUNT.
+ */
+public class ColaReclamable<T> {
+
+    private static final long REFRESCO_PENDIENTES_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int LARGO_MAXIMO_ERROR = 500;
+
+    /**
+     * Resultado de un intento fallido: cuántos van, si se agotaron y cuándo reintentar
+     */
+    public record Reintento(int intentos, boolean agotado, long esperaMs, LocalDateTime proximo, String error) {
+    }
+
+    private final RepositorioCola<T> repositorio;
+    private final TransactionTemplate transactionTemplate;
+    private final BiConsumer<T, LocalDateTime> marcarReclamada;
+    private final int tamanoLote;
+    private final int maxIntentos;
+    private final long esperaBaseMs;
+    private final long reclamoMs;
+
+    private volatile long pendientes;
+    private volatile long pendientesLeidosEn;
+    private volatile boolean pendientesLeidos;
+
+    /**
+     * @param marcarReclamada pone la fila en su estado "en proceso" con el fin del plazo dado
+     */
+    public ColaReclamable(RepositorioCola<T> repositorio,
+                          PlatformTransactionManager transactionManager,
+                          BiConsumer<T, LocalDateTime> marcarReclamada,
+                          int tamanoLote, int maxIntentos, long esperaBaseMs, long reclamoMs) {
+        this.repositorio = repositorio;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.marcarReclamada = marcarReclamada;
+        this.tamanoLote = tamanoLote;
+        this.maxIntentos = maxIntentos;
+        this.esperaBaseMs = esperaBaseMs;
+        this.reclamoMs = reclamoMs;
+    }
+
+    /**
+     * Toma el próximo lote de pendientes en su propia transacción
+     */
+    public List<T> reclamarLote() {
+        List<T> lote = transactionTemplate.execute(status -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<T> pendientesLote = repositorio.bloquearPendientes(ahora, tamanoLote);
+            LocalDateTime finReclamo = ahora.plus(reclamoMs, ChronoUnit.MILLIS);
+            pendientesLote.forEach(fila -> marcarReclamada.accept(fila, finReclamo));
+            return pendientesLote;
+        });
+        return lote != null ? lote : List.of();
+    }
+
+    /**
+     * Las filas tomadas hace más del plazo de reclamo vuelven a la cola; las que otra
+     * instancia está procesando siguen dentro de su plazo y no se tocan
+     */
+    public int liberarReclamosVencidos() {
+        return repositorio.liberarReclamosVencidos(LocalDateTime.now());
+    }
+
+    public Reintento siguienteIntento(int intentosPrevios, Exception error) {
+        int intentos = intentosPrevios + 1;
+        long espera = esperaBaseMs << Math.min(intentos - 1, 10);
+        String mensaje = error.getMessage() != null && error.getMessage().length() > LARGO_MAXIMO_ERROR
+                ? error.getMessage().substring(0, LARGO_MAXIMO_ERROR)
+                : error.getMessage();
+        return new Reintento(intentos, intentos >= maxIntentos, espera,
+                LocalDateTime.now().plus(espera, ChronoUnit.MILLIS), mensaje);
+    }
+
+    /**
+     * Registra la métrica de pendientes; contar se ejecuta como mucho una vez cada 30 s
+     */
+    public void registrarPendientes(MeterRegistry meterRegistry, String nombre, String descripcion,
+                                    LongSupplier contar) {
+        Gauge.builder(nombre, this, cola -> cola.pendientes(contar))
+                .description(descripcion)
+                .register(meterRegistry);
+    }
+
+    private double pendientes(LongSupplier contar) {
+        long ahora = System.nanoTime();
+        if (!pendientesLeidos || ahora - pendientesLeidosEn > REFRESCO_PENDIENTES_NANOS) {
+            pendientes = contar.getAsLong();
+            pendientesLeidosEn = ahora;
+            pendientesLeidos = true;
+        }
+        return pendientes;
+    }
+}
@@ -0,0 +1,183 @@
+package pe.com.ikaza.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import pe.com.ikaza.backend.entity.NotificacionWebhook;
+import pe.com.ikaza.backend.entity.NotificacionWebhook.EstadoNotificacion;
+import pe.com.ikaza.backend.repository.NotificacionWebhookRepository;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cola persistente de notificaciones de Mercado Pago.
+ * - El webhook solo inserta la notificación y responde al instante.
+ * - Un proceso programado toma lotes de pendientes (FOR UPDATE SKIP LOCKED) y
+ *   los reparte entre N hilos; cada paymentId cae siempre en el mismo hilo,
+ *   así las notificaciones de un mismo pago se procesan en orden.
+ * - Las notificaciones repetidas de un pago dentro del mismo lote se procesan una sola vez.
+ * - Reclamo de lotes, recuperación de reclamos vencidos y reintentos con espera
+ *   exponencial: ColaReclamable (webhook.cola.*).
+ */
+@Service
+@Slf4j
+public class ColaWebhookMercadoPago {
+
+    private final NotificacionWebhookRepository notificacionRepository;
+    private final PedidoService pedidoService;
+    private final ColaReclamable<NotificacionWebhook> cola;
+
+    private final ExecutorService[] trabajadores;
+
+    public ColaWebhookMercadoPago(
+            NotificacionWebhookRepository notificacionRepository,
+            PedidoService pedidoService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${webhook.cola.hilos:4}") int hilos,
+            @Value("${webhook.cola.capacidad-por-hilo:100}") int capacidadPorHilo,
+            @Value("${webhook.cola.lote:50}") int tamanoLote,
+            @Value("${webhook.cola.max-intentos:5}") int maxIntentos,
+            @Value("${webhook.cola.espera-base-ms:2000}") long esperaBaseMs,
+            @Value("${webhook.cola.reclamo-ms:300000}") long reclamoMs) {
+        this.notificacionRepository = notificacionRepository;
+        this.pedidoService = pedidoService;
+        this.cola = new ColaReclamable<>(notificacionRepository, transactionManager,
+                (notificacion, finReclamo) -> {
+                    notificacion.setEstado(EstadoNotificacion.PROCESANDO);
+                    notificacion.setFechaProximoIntento(finReclamo);
+                },
+                tamanoLote, maxIntentos, esperaBaseMs, reclamoMs);
+
+        this.trabajadores = new ExecutorService[hilos];
+        for (int i = 0; i < hilos; i++) {
+            String nombre = "webhook-mp-" + i;
+            AtomicInteger contador = new AtomicInteger();
+            trabajadores[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacidadPorHilo),
+                    r -> {
+                        Thread t = new Thread(r, nombre + "-" + contador.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+        }
+
+        cola.registrarPendientes(meterRegistry, "webhook.cola.pendientes",
+                "Notificaciones de pago pendientes de procesar",
+                () -> notificacionRepository.countByEstado(EstadoNotificacion.PENDIENTE));
+    }
+
+    /**
+     * Guarda la notificación para procesarla en segundo plano
+     */
+    public void encolar(String tipo, String paymentId, String accion, String payload) {
+        NotificacionWebhook notificacion = NotificacionWebhook.builder()
+                .tipo(tipo)
+                .paymentId(paymentId)
+                .accion(accion)
+                .payload(payload)
+                .build();
+        notificacionRepository.save(notificacion);
+        log.debug("Notificación {} encolada para paymentId {}", notificacion.getIdNotificacion(), paymentId);
+    }
+
+    /**
+     * Devuelve a la cola las notificaciones de una instancia que se detuvo sin terminarlas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${webhook.cola.reclamo-ms:300000}",
+               fixedDelayString = "${webhook.cola.reclamo-ms:300000}")
+    public void recuperarReclamosVencidos() {
+        int recuperadas = cola.liberarReclamosVencidos();
+        if (recuperadas > 0) {
+            log.warn("{} notificaciones con reclamo vencido devueltas a la cola", recuperadas);
+        }
+    }
+
+    /**
+     * Toma un lote de notificaciones pendientes y las reparte entre los trabajadores
+     */
+    @Scheduled(fixedDelayString = "${webhook.cola.intervalo-ms:1000}")
+    public void despachar() {
+        List<NotificacionWebhook> lote = cola.reclamarLote();
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        // Varias notificaciones del mismo pago en el lote: basta con procesar la última,
+        // porque el procesamiento consulta el estado actual del pago
+        Map<String, NotificacionWebhook> ultimaPorPago = new LinkedHashMap<>();
+        for (NotificacionWebhook notificacion : lote) {
+            NotificacionWebhook anterior = ultimaPorPago.put(notificacion.getPaymentId(), notificacion);
+            if (anterior != null) {
+                notificacionRepository.marcarProcesada(anterior.getIdNotificacion(), LocalDateTime.now());
+            }
+        }
+
+        for (NotificacionWebhook notificacion : ultimaPorPago.values()) {
+            ExecutorService trabajador = trabajadores[
+                    Math.floorMod(notificacion.getPaymentId().hashCode(), trabajadores.length)];
+            try {
+                trabajador.execute(() -> procesar(notificacion));
+            } catch (RejectedExecutionException e) {
+                // Cola del hilo llena: se devuelve a pendientes sin gastar un intento
+                notificacionRepository.reprogramar(notificacion.getIdNotificacion(),
+                        EstadoNotificacion.PENDIENTE, notificacion.getIntentos(),
+                        notificacion.getUltimoError(), LocalDateTime.now());
+            }
+        }
+    }
+
+    private void procesar(NotificacionWebhook notificacion) {
+        try {
+            pedidoService.procesarWebhookMercadoPago(notificacion.getPaymentId(), notificacion.getAccion());
+            notificacionRepository.marcarProcesada(notificacion.getIdNotificacion(), LocalDateTime.now());
+        } catch (Exception e) {
+            ColaReclamable.Reintento reintento = cola.siguienteIntento(notificacion.getIntentos(), e);
+            notificacionRepository.reprogramar(notificacion.getIdNotificacion(),
+                    reintento.agotado() ? EstadoNotificacion.ERROR : EstadoNotificacion.PENDIENTE,
+                    reintento.intentos(), reintento.error(), reintento.proximo());
+
+            if (reintento.agotado()) {
+                log.error("Notificación {} (paymentId {}) descartada tras {} intentos",
+                        notificacion.getIdNotificacion(), notificacion.getPaymentId(), reintento.intentos(), e);
+            } else {
+                log.warn("Error procesando notificación {} (paymentId {}), reintento en {} ms: {}",
+                        notificacion.getIdNotificacion(), notificacion.getPaymentId(),
+                        reintento.esperaMs(), reintento.error());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        for (ExecutorService trabajador : trabajadores) {
+            trabajador.shutdown();
+        }
+        for (ExecutorService trabajador : trabajadores) {
+            try {
+                if (!trabajador.awaitTermination(10, TimeUnit.SECONDS)) {
+                    trabajador.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                trabajador.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package pe.com.ikaza.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Evita trabajo repetido con las notificaciones duplicadas de Mercado Pago.
+ * Recuerda por un tiempo el último estado aplicado a cada pago (paymentId -> status);
+ * las consultas a la pasarela se agrupan en MercadoPagoService.consultarPago.
+ */
+@Component
+@Slf4j
+public class DeduplicadorPagos {
+
+    private final Cache<String, String> estadosAplicados;
+
+    private final Counter duplicadosOmitidos;
+
+    public DeduplicadorPagos(
+            MeterRegistry meterRegistry,
+            @Value("${mercadopago.dedup.tamano-maximo:50000}") long tamanoMaximo,
+            @Value("${mercadopago.dedup.ttl-minutos:1440}") long ttlMinutos) {
+        this.estadosAplicados = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutos))
+                .build();
+        this.duplicadosOmitidos = Counter.builder("mercadopago.notificaciones.duplicadas")
+                .description("Notificaciones omitidas por no cambiar el estado del pago")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si el estado ya fue aplicado a este pago (notificación sin cambios)
+     */
+    public boolean yaAplicado(String paymentId, String estado) {
+        boolean duplicado = estado.equals(estadosAplicados.getIfPresent(paymentId));
+        if (duplicado) {
+            duplicadosOmitidos.increment();
+        }
+        return duplicado;
+    }
+
+    /**
+     * Registra el estado aplicado; dentro de una transacción se hace tras el commit
+     */
+    public void registrarAplicado(String paymentId, String estado) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    estadosAplicados.put(paymentId, estado);
+                }
+            });
+        } else {
+            estadosAplicados.put(paymentId, estado);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package pe.com.ikaza.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import pe.com.ikaza.backend.entity.CorreoPendiente;
+import pe.com.ikaza.backend.entity.CorreoPendiente.EstadoCorreo;
+import pe.com.ikaza.backend.repository.CorreoPendienteRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envía en segundo plano los correos de la cola de salida (correos_pendientes).
+ * - Cada lote reclamado (ColaReclamable, email.outbox.*) se envía por una conexión
+ *   del pool SMTP; los que fallan se reprograman según ColaReclamable.siguienteIntento.
+ * - Métricas: correo.outbox.pendientes (profundidad), correo.envio (latencia del lote)
+ *   y correo.outbox.demora (tiempo desde que se encoló hasta que se envió).
+ */
+@Service
+@Slf4j
+public class DespachadorCorreos {
+
+    private final CorreoPendienteRepository correoRepository;
+    private final EmailService emailService;
+    private final ColaReclamable<CorreoPendiente> cola;
+
+    private final Timer latenciaEnvio;
+    private final Timer demoraCola;
+
+    public DespachadorCorreos(
+            CorreoPendienteRepository correoRepository,
+            EmailService emailService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${email.outbox.lote:20}") int tamanoLote,
+            @Value("${email.outbox.max-intentos:6}") int maxIntentos,
+            @Value("${email.outbox.espera-base-ms:5000}") long esperaBaseMs,
+            @Value("${email.outbox.reclamo-ms:300000}") long reclamoMs) {
+        this.correoRepository = correoRepository;
+        this.emailService = emailService;
+        this.cola = new ColaReclamable<>(correoRepository, transactionManager,
+                (correo, finReclamo) -> {
+                    correo.setEstado(EstadoCorreo.ENVIANDO);
+                    correo.setFechaProximoIntento(finReclamo);
+                },
+                tamanoLote, maxIntentos, esperaBaseMs, reclamoMs);
+
+        cola.registrarPendientes(meterRegistry, "correo.outbox.pendientes", "Correos en cola de salida",
+                () -> correoRepository.countByEstado(EstadoCorreo.PENDIENTE));
+        this.latenciaEnvio = Timer.builder("correo.envio")
+                .description("Duración del envío SMTP de un lote de correos")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.demoraCola = Timer.builder("correo.outbox.demora")
+                .description("Tiempo desde que se encola un correo hasta que se envía")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Correos que quedaron en ENVIANDO porque su instancia se detuvo
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${email.outbox.reclamo-ms:300000}",
+               fixedDelayString = "${email.outbox.reclamo-ms:300000}")
+    public void recuperarReclamosVencidos() {
+        int recuperados = cola.liberarReclamosVencidos();
+        if (recuperados > 0) {
+            log.warn("{} correos con reclamo vencido devueltos a la cola", recuperados);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.intervalo-ms:2000}")
+    public void despachar() {
+        List<CorreoPendiente> lote = cola.reclamarLote();
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        Map<MimeMessage, CorreoPendiente> mensajes = new IdentityHashMap<>();
+        for (CorreoPendiente correo : lote) {
+            try {
+                mensajes.put(emailService.crearMensaje(correo.getDestinatario(), correo.getAsunto(),
+                        correo.getCuerpoHtml()), correo);
+            } catch (Exception e) {
+                registrarFallo(correo, e);
+            }
+        }
+        if (mensajes.isEmpty()) {
+            return;
+        }
+
+        Set<CorreoPendiente> fallidos = Collections.newSetFromMap(new IdentityHashMap<>());
+        long inicio = System.nanoTime();
+        try {
+            emailService.enviarLote(new ArrayList<>(mensajes.keySet()));
+        } catch (MailSendException e) {
+            // Solo se reintentan los mensajes que fallaron; si no se indica cuáles, todos
+            Map<Object, Exception> fallos = e.getFailedMessages();
+            mensajes.forEach((mensaje, correo) -> {
+                if (fallos.isEmpty() || fallos.containsKey(mensaje)) {
+                    registrarFallo(correo, fallos.getOrDefault(mensaje, e));
+                    fallidos.add(correo);
+                }
+            });
+        } catch (Exception e) {
+            mensajes.values().forEach(correo -> registrarFallo(correo, e));
+            fallidos.addAll(mensajes.values());
+        } finally {
+            latenciaEnvio.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+
+        List<Long> enviados = new ArrayList<>();
+        LocalDateTime ahora = LocalDateTime.now();
+        for (CorreoPendiente correo : mensajes.values()) {
+            if (!fallidos.contains(correo)) {
+                enviados.add(correo.getIdCorreo());
+                demoraCola.record(Duration.between(correo.getFechaCreacion(), ahora));
+            }
+        }
+        if (!enviados.isEmpty()) {
+            correoRepository.marcarEnviados(enviados, ahora);
+            log.info("{} correos enviados desde la cola de salida", enviados.size());
+        }
+    }
+
+    private void registrarFallo(CorreoPendiente correo, Exception error) {
+        ColaReclamable.Reintento reintento = cola.siguienteIntento(correo.getIntentos(), error);
+        correoRepository.reprogramar(correo.getIdCorreo(),
+                reintento.agotado() ? EstadoCorreo.ERROR : EstadoCorreo.PENDIENTE,
+                reintento.intentos(), reintento.error(), reintento.proximo());
+
+        if (reintento.agotado()) {
+            log.error("Correo {} a {} descartado tras {} intentos", correo.getIdCorreo(),
+                    correo.getDestinatario(), reintento.intentos(), error);
+        } else {
+            log.warn("Error enviando correo {} a {}, reintento en {} ms: {}", correo.getIdCorreo(),
+                    correo.getDestinatario(), reintento.esperaMs(), reintento.error());
+        }
+    }
+}
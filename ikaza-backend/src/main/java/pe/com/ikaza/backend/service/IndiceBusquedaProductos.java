@@ -0,0 +1,241 @@
+package pe.com.ikaza.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.com.ikaza.backend.entity.Producto;
+import pe.com.ikaza.backend.entity.ProductoDetalle;
+import pe.com.ikaza.backend.event.ProductoModificadoEvent;
+import pe.com.ikaza.backend.repository.ProductoDetalleRepository;
+import pe.com.ikaza.backend.repository.ProductoRepository;
+import pe.com.ikaza.backend.utils.TextoNormalizador;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice invertido en memoria para la búsqueda de productos.
+ * Cada término normalizado (sin tildes, en minúsculas) apunta a los productos
+ * que lo contienen junto con un peso según el campo donde aparece.
+ * Se carga al iniciar la aplicación y se actualiza por producto cuando
+ * ProductoService confirma una creación, edición o eliminación.
+ */
+@Component
+@Slf4j
+public class IndiceBusquedaProductos {
+
+    private static final float PESO_NOMBRE = 10f;
+    private static final float PESO_MARCA = 6f;
+    private static final float PESO_MODELO = 5f;
+    private static final float PESO_CATEGORIA = 3f;
+    private static final float PESO_ATRIBUTOS = 2f;
+    private static final float PESO_ESPECIFICACIONES = 2f;
+    private static final float PESO_DESCRIPCION = 1f;
+
+    /**
+     * Factor aplicado cuando el término del índice solo empieza con la palabra buscada
+     */
+    private static final float FACTOR_PREFIJO = 0.5f;
+
+    private final ProductoRepository productoRepository;
+    private final ProductoDetalleRepository productoDetalleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+
+    /** término -> (idProducto -> peso) */
+    private final ConcurrentSkipListMap<String, Map<Long, Float>> terminos = new ConcurrentSkipListMap<>();
+
+    /** idProducto -> términos indexados (para poder retirarlos al actualizar) */
+    private final Map<Long, Set<String>> terminosPorProducto = new ConcurrentHashMap<>();
+
+    private volatile boolean cargado = false;
+
+    public IndiceBusquedaProductos(
+            ProductoRepository productoRepository,
+            ProductoDetalleRepository productoDetalleRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${catalogo.busqueda.modo:indice}") String modo) {
+        this.productoRepository = productoRepository;
+        this.productoDetalleRepository = productoDetalleRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.habilitado = "indice".equalsIgnoreCase(modo);
+    }
+
+    /**
+     * Indica si las búsquedas deben resolverse con este índice
+     */
+    public boolean isDisponible() {
+        return habilitado && cargado;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarIndice() {
+        if (!habilitado) {
+            log.info("Índice de búsqueda deshabilitado (catalogo.busqueda.modo != indice)");
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, ProductoDetalle> detalles = new HashMap<>();
+            for (ProductoDetalle detalle : productoDetalleRepository.findAll()) {
+                detalles.put(detalle.getProducto().getIdProducto(), detalle);
+            }
+            for (Producto producto : productoRepository.findAll()) {
+                indexar(producto, detalles.get(producto.getIdProducto()));
+            }
+        });
+        cargado = true;
+        log.info("Índice de búsqueda cargado: {} productos, {} términos en {} ms",
+                terminosPorProducto.size(), terminos.size(), System.currentTimeMillis() - inicio);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductoModificado(ProductoModificadoEvent evento) {
+        if (!habilitado || evento.tipo() == ProductoModificadoEvent.Tipo.STOCK) {
+            return;
+        }
+        if (evento.tipo() == ProductoModificadoEvent.Tipo.ELIMINADO) {
+            retirar(evento.idProducto());
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Producto producto = productoRepository.findById(evento.idProducto()).orElse(null);
+                if (producto == null) {
+                    retirar(evento.idProducto());
+                    return;
+                }
+                ProductoDetalle detalle = productoDetalleRepository
+                        .findByProductoIdProducto(evento.idProducto()).orElse(null);
+                indexar(producto, detalle);
+            });
+        } catch (Exception e) {
+            log.error("No se pudo reindexar el producto {}: {}", evento.idProducto(), e.getMessage());
+        }
+    }
+
+    /**
+     * Busca productos que contengan todas las palabras del texto.
+     * La última palabra también coincide como prefijo (búsqueda mientras se escribe).
+     * @return IDs ordenados por relevancia descendente
+     */
+    public List<Long> buscar(String texto) {
+        List<String> palabras = TextoNormalizador.tokenizar(texto);
+        if (palabras.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Float> puntajes = null;
+        for (int i = 0; i < palabras.size(); i++) {
+            boolean prefijo = i == palabras.size() - 1;
+            Map<Long, Float> coincidencias = puntuarPalabra(palabras.get(i), prefijo);
+            if (puntajes == null) {
+                puntajes = coincidencias;
+            } else {
+                puntajes.keySet().retainAll(coincidencias.keySet());
+                for (Map.Entry<Long, Float> entrada : puntajes.entrySet()) {
+                    entrada.setValue(entrada.getValue() + coincidencias.get(entrada.getKey()));
+                }
+            }
+            if (puntajes.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Map.Entry<Long, Float>> ordenados = new ArrayList<>(puntajes.entrySet());
+        ordenados.sort(Map.Entry.<Long, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<Long> ids = new ArrayList<>(ordenados.size());
+        for (Map.Entry<Long, Float> entrada : ordenados) {
+            ids.add(entrada.getKey());
+        }
+        return ids;
+    }
+
+    private Map<Long, Float> puntuarPalabra(String palabra, boolean prefijo) {
+        Map<Long, Float> resultado = new HashMap<>();
+        if (!prefijo) {
+            Map<Long, Float> exactos = terminos.get(palabra);
+            if (exactos != null) {
+                resultado.putAll(exactos);
+            }
+            return resultado;
+        }
+
+        for (Map.Entry<String, Map<Long, Float>> termino
+                : terminos.subMap(palabra, true, palabra + Character.MAX_VALUE, false).entrySet()) {
+            float factor = termino.getKey().length() == palabra.length() ? 1f : FACTOR_PREFIJO;
+            for (Map.Entry<Long, Float> posting : termino.getValue().entrySet()) {
+                resultado.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+            }
+        }
+        return resultado;
+    }
+
+    private synchronized void indexar(Producto producto, ProductoDetalle detalle) {
+        Long id = producto.getIdProducto();
+        retirar(id);
+
+        Map<String, Float> pesos = new HashMap<>();
+        agregar(pesos, producto.getNombreProducto(), PESO_NOMBRE);
+        agregar(pesos, producto.getDescripcionProducto(), PESO_DESCRIPCION);
+        if (producto.getCategoria() != null) {
+            agregar(pesos, producto.getCategoria().getNombreCategoria(), PESO_CATEGORIA);
+        }
+        if (detalle != null) {
+            agregar(pesos, detalle.getMarca(), PESO_MARCA);
+            agregar(pesos, detalle.getModelo(), PESO_MODELO);
+            if (detalle.getAtributos() != null) {
+                for (Map.Entry<String, String> atributo : detalle.getAtributos().entrySet()) {
+                    agregar(pesos, atributo.getKey(), PESO_ATRIBUTOS);
+                    agregar(pesos, atributo.getValue(), PESO_ATRIBUTOS);
+                }
+            }
+            if (detalle.getEspecificaciones() != null) {
+                for (ProductoDetalle.EspecificacionDto especificacion : detalle.getEspecificaciones()) {
+                    agregar(pesos, especificacion.getNombre(), PESO_ESPECIFICACIONES);
+                    agregar(pesos, especificacion.getValor(), PESO_ESPECIFICACIONES);
+                }
+            }
+        }
+
+        for (Map.Entry<String, Float> entrada : pesos.entrySet()) {
+            terminos.computeIfAbsent(entrada.getKey(), k -> new ConcurrentHashMap<>())
+                    .put(id, entrada.getValue());
+        }
+        terminosPorProducto.put(id, pesos.keySet());
+    }
+
+    private synchronized void retirar(Long idProducto) {
+        Set<String> anteriores = terminosPorProducto.remove(idProducto);
+        if (anteriores == null) {
+            return;
+        }
+        for (String termino : anteriores) {
+            terminos.computeIfPresent(termino, (k, postings) -> {
+                postings.remove(idProducto);
+                return postings.isEmpty() ? null : postings;
+            });
+        }
+    }
+
+    /**
+     * Suma el peso del campo a cada palabra; un término presente en varios campos acumula
+     */
+    private void agregar(Map<String, Float> pesos, String texto, float peso) {
+        for (String token : TextoNormalizador.tokenizar(texto)) {
+            pesos.merge(token, peso, Float::sum);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package pe.com.ikaza.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.com.ikaza.backend.dto.response.SugerenciaResponse;
+import pe.com.ikaza.backend.entity.Producto;
+import pe.com.ikaza.backend.entity.ProductoDetalle;
+import pe.com.ikaza.backend.event.ProductoModificadoEvent;
+import pe.com.ikaza.backend.repository.ProductoDetalleRepository;
+import pe.com.ikaza.backend.repository.ProductoRepository;
+import pe.com.ikaza.backend.utils.TextoNormalizador;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de prefijos en memoria para el autocompletado del buscador.
+ * Es un arreglo ordenado e inmutable de claves normalizadas; cada nombre de producto,
+ * marca y categoría aporta una clave por cada palabra con la que empieza un sufijo
+ * ("camara canon eos" → "camara canon eos", "canon eos", "eos"), así "eos" también
+ * sugiere el producto. Las consultas hacen una búsqueda binaria sin tocar la base de datos.
+ * El arreglo se reconstruye cuando ProductoService confirma cambios en un producto.
+ */
+@Component
+@Slf4j
+public class IndiceSugerenciasProductos {
+
+    public static final String TIPO_PRODUCTO = "PRODUCTO";
+    public static final String TIPO_MARCA = "MARCA";
+    public static final String TIPO_CATEGORIA = "CATEGORIA";
+
+    private record Fuente(String texto, String tipo, Long idProducto) {
+    }
+
+    private record Entrada(String clave, Fuente fuente, boolean inicioDeTexto) {
+    }
+
+    /** Orden de las sugerencias: tipo, luego inicio de texto, textos cortos primero */
+    private static final Comparator<Entrada> ORDEN = Comparator
+            .comparingInt(IndiceSugerenciasProductos::prioridad)
+            .thenComparingInt((Entrada e) -> e.fuente().texto().length())
+            .thenComparing(e -> e.fuente().texto())
+            .thenComparing(e -> e.fuente().idProducto(), Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ProductoRepository productoRepository;
+    private final ProductoDetalleRepository productoDetalleRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /** idProducto -> textos que aporta (nombre, marca, categoría) */
+    private final Map<Long, List<Fuente>> fuentesPorProducto = new ConcurrentHashMap<>();
+
+    private volatile Entrada[] entradas = new Entrada[0];
+
+    public IndiceSugerenciasProductos(
+            ProductoRepository productoRepository,
+            ProductoDetalleRepository productoDetalleRepository,
+            PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.productoDetalleRepository = productoDetalleRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarIndice() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, ProductoDetalle> detalles = new HashMap<>();
+            for (ProductoDetalle detalle : productoDetalleRepository.findAll()) {
+                detalles.put(detalle.getProducto().getIdProducto(), detalle);
+            }
+            for (Producto producto : productoRepository.findAll()) {
+                fuentesPorProducto.put(producto.getIdProducto(),
+                        fuentesDe(producto, detalles.get(producto.getIdProducto())));
+            }
+        });
+        reconstruir();
+        log.info("Índice de sugerencias cargado: {} claves", entradas.length);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductoModificado(ProductoModificadoEvent evento) {
+        if (evento.tipo() == ProductoModificadoEvent.Tipo.STOCK) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Producto producto = evento.tipo() == ProductoModificadoEvent.Tipo.ELIMINADO
+                        ? null
+                        : productoRepository.findById(evento.idProducto()).orElse(null);
+                if (producto == null) {
+                    fuentesPorProducto.remove(evento.idProducto());
+                } else {
+                    ProductoDetalle detalle = productoDetalleRepository
+                            .findByProductoIdProducto(evento.idProducto()).orElse(null);
+                    fuentesPorProducto.put(evento.idProducto(), fuentesDe(producto, detalle));
+                }
+            });
+            reconstruir();
+        } catch (Exception e) {
+            log.error("No se pudo actualizar las sugerencias del producto {}: {}",
+                    evento.idProducto(), e.getMessage());
+        }
+    }
+
+    /**
+     * Devuelve hasta {@code limite} sugerencias cuyo texto tiene alguna palabra que empieza con {@code q}.
+     * Se prefieren productos, luego marcas y categorías; dentro de cada tipo, los textos que
+     * empiezan con la consulta. Se recorre todo el rango del prefijo guardando solo las
+     * {@code limite} mejores en un montículo, así el corte no depende del orden alfabético.
+     */
+    public List<SugerenciaResponse> sugerir(String q, int limite) {
+        String prefijo = String.join(" ", TextoNormalizador.tokenizar(q));
+        if (prefijo.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+
+        Entrada[] actuales = entradas;
+        // La cima es la peor de las mejores encontradas hasta ahora
+        PriorityQueue<Entrada> mejores = new PriorityQueue<>(limite + 1, ORDEN.reversed());
+        Map<Fuente, Entrada> enMonticulo = new HashMap<>();
+        for (int i = primeraPosicion(actuales, prefijo);
+             i < actuales.length && actuales[i].clave().startsWith(prefijo);
+             i++) {
+            Entrada entrada = actuales[i];
+            Entrada previa = enMonticulo.get(entrada.fuente());
+            if (previa != null) {
+                // Misma fuente por otra palabra: se queda la de mejor prioridad
+                if (ORDEN.compare(entrada, previa) >= 0) {
+                    continue;
+                }
+                mejores.remove(previa);
+            } else if (mejores.size() == limite && ORDEN.compare(entrada, mejores.peek()) >= 0) {
+                continue;
+            }
+            mejores.add(entrada);
+            enMonticulo.put(entrada.fuente(), entrada);
+            if (mejores.size() > limite) {
+                enMonticulo.remove(mejores.poll().fuente());
+            }
+        }
+
+        return mejores.stream()
+                .sorted(ORDEN)
+                .map(e -> new SugerenciaResponse(e.fuente().texto(), e.fuente().tipo(), e.fuente().idProducto()))
+                .toList();
+    }
+
+    private static int prioridad(Entrada entrada) {
+        int porTipo = switch (entrada.fuente().tipo()) {
+            case TIPO_PRODUCTO -> 0;
+            case TIPO_MARCA -> 1;
+            default -> 2;
+        };
+        return porTipo * 2 + (entrada.inicioDeTexto() ? 0 : 1);
+    }
+
+    /**
+     * Búsqueda binaria de la primera clave mayor o igual al prefijo
+     */
+    private static int primeraPosicion(Entrada[] arreglo, String prefijo) {
+        int bajo = 0;
+        int alto = arreglo.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (arreglo[medio].clave().compareTo(prefijo) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Regenera el arreglo ordenado a partir de las fuentes en memoria.
+     * Marcas y categorías repetidas entre productos se sugieren una sola vez.
+     */
+    private synchronized void reconstruir() {
+        Set<Fuente> fuentes = new LinkedHashSet<>();
+        for (List<Fuente> delProducto : fuentesPorProducto.values()) {
+            fuentes.addAll(delProducto);
+        }
+
+        List<Entrada> nuevas = new ArrayList<>();
+        for (Fuente fuente : fuentes) {
+            List<String> palabras = TextoNormalizador.tokenizar(fuente.texto());
+            for (int i = 0; i < palabras.size(); i++) {
+                String clave = String.join(" ", palabras.subList(i, palabras.size()));
+                nuevas.add(new Entrada(clave, fuente, i == 0));
+            }
+        }
+        nuevas.sort(Comparator.comparing(Entrada::clave));
+        entradas = nuevas.toArray(new Entrada[0]);
+    }
+
+    private List<Fuente> fuentesDe(Producto producto, ProductoDetalle detalle) {
+        List<Fuente> fuentes = new ArrayList<>();
+        if (producto.getNombreProducto() != null) {
+            fuentes.add(new Fuente(producto.getNombreProducto().trim(), TIPO_PRODUCTO, producto.getIdProducto()));
+        }
+        if (detalle != null && detalle.getMarca() != null && !detalle.getMarca().isBlank()) {
+            fuentes.add(new Fuente(detalle.getMarca().trim(), TIPO_MARCA, null));
+        }
+        if (producto.getCategoria() != null && producto.getCategoria().getNombreCategoria() != null) {
+            fuentes.add(new Fuente(producto.getCategoria().getNombreCategoria().trim(), TIPO_CATEGORIA, null));
+        }
+        return fuentes;
+    }
+}
@@ -2,9 +2,15 @@ package pe.com.ikaza.backend.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pe.com.ikaza.backend.dto.request.AjusteStockRequest;
+import pe.com.ikaza.backend.dto.response.CursorPageResponse;
 import pe.com.ikaza.backend.dto.response.InventarioResponse;
 import pe.com.ikaza.backend.dto.response.MovimientoInventarioResponse;
 import pe.com.ikaza.backend.entity.Cliente;
@@ -12,13 +18,17 @@ import pe.com.ikaza.backend.entity.Inventario;
 import pe.com.ikaza.backend.entity.MovimientoInventario;
 import pe.com.ikaza.backend.entity.Producto;
 import pe.com.ikaza.backend.entity.Usuario;
+import pe.com.ikaza.backend.event.ProductoModificadoEvent;
 import pe.com.ikaza.backend.repository.ClienteRepository;
 import pe.com.ikaza.backend.repository.InventarioRepository;
 import pe.com.ikaza.backend.repository.MovimientoInventarioRepository;
 import pe.com.ikaza.backend.repository.ProductoRepository;
 import pe.com.ikaza.backend.repository.UsuarioRepository;
+import pe.com.ikaza.backend.service.LibroStockCaliente.AjusteAplicado;
+import pe.com.ikaza.backend.utils.CursorCodec;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +45,8 @@ public class InventarioAdminService {
     private final ProductoRepository productoRepository;
     private final UsuarioRepository usuarioRepository;
     private final ClienteRepository clienteRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LibroStockCaliente libroStock;
 
     /**
      * Obtiene todos los inventarios del sistema
@@ -84,6 +96,33 @@ public class InventarioAdminService {
         Usuario usuario = idUsuario != null ? 
                 usuarioRepository.findById(idUsuario).orElse(null) : null;
 
+        // Producto caliente: el ajuste pasa por el libro en memoria, que es el único
+        // que escribe su fila de inventario (ver LibroStockCaliente)
+        AjusteAplicado ajusteLibro = libroStock.ajustar(idProducto, request.getTipo(), request.getCantidad());
+        if (ajusteLibro != null) {
+            movimientoRepository.save(new MovimientoInventario(
+                    usuario,
+                    producto,
+                    request.getTipo(),
+                    request.getCantidad(),
+                    ajusteLibro.stockAnterior(),
+                    ajusteLibro.stockActual(),
+                    request.getMotivo()
+            ));
+            eventPublisher.publishEvent(new ProductoModificadoEvent(idProducto, ProductoModificadoEvent.Tipo.STOCK));
+
+            log.info("Stock ajustado en libro de stock. Stock anterior: {}, Stock nuevo: {}",
+                    ajusteLibro.stockAnterior(), ajusteLibro.stockActual());
+
+            int disponible = ajusteLibro.stockActual() - ajusteLibro.stockReservado();
+            InventarioResponse respuesta = convertirAInventarioResponse(inventario);
+            respuesta.setStockActual(ajusteLibro.stockActual());
+            respuesta.setStockReservado(ajusteLibro.stockReservado());
+            respuesta.setStockDisponible(disponible);
+            respuesta.setNecesitaReposicion(disponible <= 5);
+            return respuesta;
+        }
+
         // Guardar stock anterior
         int stockAnterior = inventario.getStockActual();
 
@@ -130,6 +169,7 @@ public class InventarioAdminService {
                 request.getMotivo()
         );
         movimientoRepository.save(movimiento);
+        eventPublisher.publishEvent(new ProductoModificadoEvent(idProducto, ProductoModificadoEvent.Tipo.STOCK));
 
         log.info("Stock ajustado exitosamente. Stock anterior: {}, Stock nuevo: {}", 
                 stockAnterior, inventario.getStockActual());
@@ -151,6 +191,25 @@ public class InventarioAdminService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Historial de movimientos con paginación por cursor (más recientes primero).
+     * Si idProducto es null se listan los movimientos de todos los productos.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<MovimientoInventarioResponse> obtenerMovimientosPorCursor(
+            Long idProducto, String cursor, int tamano) {
+        Sort sort = Sort.by(Sort.Direction.DESC, "fechaMovimiento", "idMovimiento");
+        KeysetScrollPosition posicion = CursorCodec.decodificar(cursor, Set.of("fechaMovimiento", "idMovimiento"));
+
+        Window<MovimientoInventario> window = idProducto != null
+                ? movimientoRepository.findByProductoIdProducto(idProducto, posicion, sort, Limit.of(tamano))
+                : movimientoRepository.findBy(posicion, sort, Limit.of(tamano));
+
+        return CursorPageResponse.desde(window, window.getContent().stream()
+                .map(this::convertirAMovimientoResponse)
+                .collect(Collectors.toList()));
+    }
+
     /**
      * Obtiene los últimos movimientos del sistema
      */
@@ -2,6 +2,7 @@ package pe.com.ikaza.backend.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pe.com.ikaza.backend.dto.request.ItemPedidoRequest;
@@ -9,14 +10,22 @@ import pe.com.ikaza.backend.entity.Inventario;
 import pe.com.ikaza.backend.entity.MovimientoInventario;
 import pe.com.ikaza.backend.entity.Producto;
 import pe.com.ikaza.backend.entity.Usuario;
+import pe.com.ikaza.backend.event.ProductoModificadoEvent;
+import pe.com.ikaza.backend.repository.InventarioLoteRepository;
+import pe.com.ikaza.backend.repository.InventarioLoteRepository.OperacionStock;
 import pe.com.ikaza.backend.repository.InventarioRepository;
-import pe.com.ikaza.backend.repository.MovimientoInventarioRepository;
 import pe.com.ikaza.backend.repository.ProductoRepository;
+import pe.com.ikaza.backend.repository.StockInventarioView;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.ToIntFunction;
 
 /**
- * Servicio responsable de la gestión de inventario y movimientos
+ * Servicio responsable de la gestión de inventario y movimientos.
+ * Las operaciones trabajan sobre el carrito completo: las cantidades se agrupan por
+ * producto y se aplican en orden de ID con un único lote de UPDATEs condicionales,
+ * una lectura de los contadores resultantes y un lote de inserts de movimientos.
+ * Los productos configurados como "calientes" se resuelven en LibroStockCaliente, en memoria.
  */
 @Service
 @Slf4j
@@ -24,8 +33,10 @@ import java.util.List;
 public class InventarioService {
 
     private final InventarioRepository inventarioRepository;
-    private final MovimientoInventarioRepository movimientoRepository;
+    private final InventarioLoteRepository inventarioLoteRepository;
+    private final LibroStockCaliente libroStock;
     private final ProductoRepository productoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Valida que hay stock disponible para todos los items
@@ -33,20 +44,29 @@ public class InventarioService {
      */
     public void validarStockDisponible(List<ItemPedidoRequest> items) {
         log.info("Validando stock para {} items", items.size());
-        
-        for (ItemPedidoRequest item : items) {
-            Producto producto = productoRepository.findById(item.getIdProducto())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + item.getIdProducto()));
 
-            Inventario inventario = inventarioRepository.findByProductoIdProducto(producto.getIdProducto())
-                    .orElseThrow(() -> new RuntimeException("Inventario no encontrado para producto: " + producto.getIdProducto()));
+        SortedMap<Long, Integer> cantidades = agruparPorProducto(items);
+        for (Map.Entry<Long, Integer> caliente : libroStock.separarCalientes(cantidades).entrySet()) {
+            int disponible = libroStock.disponible(caliente.getKey());
+            if (disponible < caliente.getValue()) {
+                throw new StockInsuficienteException(
+                    String.format("Stock insuficiente para producto %d. Disponible: %d, Solicitado: %d",
+                        caliente.getKey(), disponible, caliente.getValue())
+                );
+            }
+        }
+        Map<Long, StockInventarioView> stocks = leerStocks(cantidades.keySet());
 
-            if (!inventario.hayStockDisponible(item.getCantidad())) {
+        for (Map.Entry<Long, Integer> entrada : cantidades.entrySet()) {
+            StockInventarioView stock = stocks.get(entrada.getKey());
+            if (stock == null) {
+                throw new RuntimeException("Inventario no encontrado para producto: " + entrada.getKey());
+            }
+            int disponible = stock.getStockActual() - stock.getStockReservado();
+            if (disponible < entrada.getValue()) {
                 throw new StockInsuficienteException(
                     String.format("Stock insuficiente para %s. Disponible: %d, Solicitado: %d",
-                        producto.getNombreProducto(), 
-                        inventario.getStockDisponibleCalculado(), 
-                        item.getCantidad())
+                        stock.getNombreProducto(), disponible, entrada.getValue())
                 );
             }
         }
@@ -56,32 +76,37 @@ public class InventarioService {
 
     /**
      * Reserva stock para un pedido pendiente
-     * Se usa cuando se crea un pedido con MercadoPago (pago asíncrono)
+     * Se usa cuando se crea un pedido con MercadoPago (pago asíncrono).
+     * Cada reserva es un UPDATE condicional: si dos compras concurrentes piden
+     * las últimas unidades, solo una afecta la fila y la otra recibe StockInsuficienteException.
      */
     @Transactional
     public void reservarStock(List<ItemPedidoRequest> items, Long idPedido, Usuario usuario) {
         log.info("Reservando stock para pedido: {}", idPedido);
-        
-        for (ItemPedidoRequest item : items) {
-            Producto producto = productoRepository.findById(item.getIdProducto())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
-            Inventario inventario = obtenerOCrearInventario(producto);
-            
-            inventario.reservarStock(item.getCantidad());
-            inventarioRepository.save(inventario);
+        String motivo = "Reserva de stock para pedido #" + idPedido;
+        SortedMap<Long, Integer> cantidades = agruparPorProducto(items);
+        if (!aplicarEnLibro(OperacionStock.RESERVAR, cantidades, usuario,
+                MovimientoInventario.TipoMovimiento.AJUSTE, motivo)) {
+            return;
+        }
+        List<Long> fallidos = sinFilaAfectada(cantidades,
+                inventarioLoteRepository.actualizar(OperacionStock.RESERVAR, cantidades));
 
-            registrarMovimiento(
-                usuario,
-                producto,
-                MovimientoInventario.TipoMovimiento.AJUSTE,
-                item.getCantidad(),
-                inventario.getStockReservado() - item.getCantidad(),
-                inventario.getStockReservado(),
-                "Reserva de stock para pedido #" + idPedido
-            );
+        // Productos sin inventario todavía: se crea y se reintenta solo con ellos
+        if (!fallidos.isEmpty() && crearInventariosFaltantes(fallidos)) {
+            SortedMap<Long, Integer> reintento = new TreeMap<>();
+            fallidos.forEach(id -> reintento.put(id, cantidades.get(id)));
+            fallidos = sinFilaAfectada(reintento,
+                    inventarioLoteRepository.actualizar(OperacionStock.RESERVAR, reintento));
         }
-        
+        if (!fallidos.isEmpty()) {
+            throw stockInsuficiente(fallidos.get(0), cantidades.get(fallidos.get(0)));
+        }
+
+        registrarMovimientos(usuario, cantidades, MovimientoInventario.TipoMovimiento.AJUSTE,
+                StockInventarioView::getStockReservado, -1, motivo);
+
         log.info("Stock reservado exitosamente");
     }
 
@@ -92,33 +117,24 @@ public class InventarioService {
     @Transactional
     public void confirmarVenta(List<ItemPedidoRequest> items, Long idPedido, Usuario usuario) {
         log.info("Confirmando venta para pedido: {}", idPedido);
-        
-        for (ItemPedidoRequest item : items) {
-            Producto producto = productoRepository.findById(item.getIdProducto())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
-            Inventario inventario = inventarioRepository.findByProductoIdProducto(producto.getIdProducto())
-                    .orElseThrow(() -> new RuntimeException("Inventario no encontrado"));
-
-            int stockAnterior = inventario.getStockActual();
-            
-            inventario.confirmarVenta(item.getCantidad());
-            inventarioRepository.save(inventario);
+        String motivo = "Venta confirmada - Pedido #" + idPedido;
+        SortedMap<Long, Integer> cantidades = agruparPorProducto(items);
+        if (!aplicarEnLibro(OperacionStock.CONFIRMAR, cantidades, usuario,
+                MovimientoInventario.TipoMovimiento.SALIDA, motivo)) {
+            return;
+        }
+        List<Long> fallidos = sinFilaAfectada(cantidades,
+                inventarioLoteRepository.actualizar(OperacionStock.CONFIRMAR, cantidades));
+        if (!fallidos.isEmpty()) {
+            validarInventariosExisten(fallidos);
+            throw new IllegalStateException("Stock reservado insuficiente para producto: " + fallidos.get(0));
+        }
 
-            producto.setStock(inventario.getStockActual());
-            productoRepository.save(producto);
+        inventarioLoteRepository.sincronizarStockProductos(cantidades.keySet());
+        registrarMovimientos(usuario, cantidades, MovimientoInventario.TipoMovimiento.SALIDA,
+                StockInventarioView::getStockActual, +1, motivo);
 
-            registrarMovimiento(
-                usuario,
-                producto,
-                MovimientoInventario.TipoMovimiento.SALIDA,
-                item.getCantidad(),
-                stockAnterior,
-                inventario.getStockActual(),
-                "Venta confirmada - Pedido #" + idPedido
-            );
-        }
-        
         log.info("Venta confirmada y stock actualizado");
     }
 
@@ -128,30 +144,23 @@ public class InventarioService {
     @Transactional
     public void liberarStockReservado(List<ItemPedidoRequest> items, Long idPedido, Usuario usuario) {
         log.info("Liberando stock reservado para pedido: {}", idPedido);
-        
-        for (ItemPedidoRequest item : items) {
-            Producto producto = productoRepository.findById(item.getIdProducto())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
-            Inventario inventario = inventarioRepository.findByProductoIdProducto(producto.getIdProducto())
-                    .orElseThrow(() -> new RuntimeException("Inventario no encontrado"));
+        String motivo = "Liberación de stock - Pedido cancelado #" + idPedido;
+        SortedMap<Long, Integer> cantidades = agruparPorProducto(items);
+        if (!aplicarEnLibro(OperacionStock.LIBERAR, cantidades, usuario,
+                MovimientoInventario.TipoMovimiento.AJUSTE, motivo)) {
+            return;
+        }
+        List<Long> fallidos = sinFilaAfectada(cantidades,
+                inventarioLoteRepository.actualizar(OperacionStock.LIBERAR, cantidades));
+        if (!fallidos.isEmpty()) {
+            validarInventariosExisten(fallidos);
+            throw new IllegalStateException("No hay suficiente stock reservado para liberar");
+        }
 
-            int stockReservadoAnterior = inventario.getStockReservado();
-            
-            inventario.liberarStockReservado(item.getCantidad());
-            inventarioRepository.save(inventario);
+        registrarMovimientos(usuario, cantidades, MovimientoInventario.TipoMovimiento.AJUSTE,
+                StockInventarioView::getStockReservado, +1, motivo);
 
-            registrarMovimiento(
-                usuario,
-                producto,
-                MovimientoInventario.TipoMovimiento.AJUSTE,
-                item.getCantidad(),
-                stockReservadoAnterior,
-                inventario.getStockReservado(),
-                "Liberación de stock - Pedido cancelado #" + idPedido
-            );
-        }
-        
         log.info("Stock reservado liberado");
     }
 
@@ -161,34 +170,111 @@ public class InventarioService {
     @Transactional
     public void devolverStock(List<ItemPedidoRequest> items, Long idPedido, Usuario usuario) {
         log.info("Devolviendo stock para pedido: {}", idPedido);
-        
+
+        String motivo = "Devolución - Pedido #" + idPedido;
+        SortedMap<Long, Integer> cantidades = agruparPorProducto(items);
+        if (!aplicarEnLibro(OperacionStock.DEVOLVER, cantidades, usuario,
+                MovimientoInventario.TipoMovimiento.DEVOLUCION, motivo)) {
+            return;
+        }
+        List<Long> fallidos = sinFilaAfectada(cantidades,
+                inventarioLoteRepository.actualizar(OperacionStock.DEVOLVER, cantidades));
+        if (!fallidos.isEmpty()) {
+            throw new RuntimeException("Inventario no encontrado");
+        }
+
+        inventarioLoteRepository.sincronizarStockProductos(cantidades.keySet());
+        registrarMovimientos(usuario, cantidades, MovimientoInventario.TipoMovimiento.DEVOLUCION,
+                StockInventarioView::getStockActual, -1, motivo);
+
+        log.info("Stock devuelto exitosamente");
+    }
+
+    /**
+     * Suma las cantidades por producto y las ordena por ID.
+     * El orden fijo evita interbloqueos entre carritos con productos en común.
+     */
+    private SortedMap<Long, Integer> agruparPorProducto(List<ItemPedidoRequest> items) {
+        SortedMap<Long, Integer> cantidades = new TreeMap<>();
         for (ItemPedidoRequest item : items) {
-            Producto producto = productoRepository.findById(item.getIdProducto())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+            if (item.getCantidad() == null || item.getCantidad() <= 0) {
+                throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+            }
+            cantidades.merge(item.getIdProducto(), item.getCantidad(), Integer::sum);
+        }
+        return cantidades;
+    }
 
-            Inventario inventario = inventarioRepository.findByProductoIdProducto(producto.getIdProducto())
-                    .orElseThrow(() -> new RuntimeException("Inventario no encontrado"));
+    /**
+     * Resuelve en el libro en memoria los productos calientes del carrito y los quita del mapa
+     * @return true si quedan productos por procesar en la base de datos
+     */
+    private boolean aplicarEnLibro(OperacionStock operacion, SortedMap<Long, Integer> cantidades,
+                                   Usuario usuario, MovimientoInventario.TipoMovimiento tipo, String motivo) {
+        SortedMap<Long, Integer> calientes = libroStock.separarCalientes(cantidades);
+        if (!calientes.isEmpty()) {
+            libroStock.aplicar(operacion, calientes, usuario, tipo, motivo);
+        }
+        return !cantidades.isEmpty();
+    }
 
-            int stockAnterior = inventario.getStockActual();
-            
-            inventario.agregarStock(item.getCantidad());
-            inventarioRepository.save(inventario);
+    private List<Long> sinFilaAfectada(SortedMap<Long, Integer> cantidades, int[] filas) {
+        List<Long> fallidos = new ArrayList<>();
+        int i = 0;
+        for (Long idProducto : cantidades.keySet()) {
+            if (filas[i++] == 0) {
+                fallidos.add(idProducto);
+            }
+        }
+        return fallidos;
+    }
 
-            producto.setStock(inventario.getStockActual());
-            productoRepository.save(producto);
+    /**
+     * Lee los contadores de todos los productos en una consulta.
+     * Tras un UPDATE las filas quedan bloqueadas hasta el commit, así que los valores son consistentes.
+     */
+    private Map<Long, StockInventarioView> leerStocks(Collection<Long> idsProducto) {
+        Map<Long, StockInventarioView> stocks = new HashMap<>();
+        for (StockInventarioView stock : inventarioRepository.consultarStocks(idsProducto)) {
+            stocks.put(stock.getIdProducto(), stock);
+        }
+        return stocks;
+    }
 
-            registrarMovimiento(
-                usuario,
-                producto,
-                MovimientoInventario.TipoMovimiento.DEVOLUCION,
-                item.getCantidad(),
-                stockAnterior,
-                inventario.getStockActual(),
-                "Devolución - Pedido #" + idPedido
-            );
+    private void validarInventariosExisten(List<Long> idsProducto) {
+        Map<Long, StockInventarioView> stocks = leerStocks(idsProducto);
+        for (Long idProducto : idsProducto) {
+            if (!stocks.containsKey(idProducto)) {
+                throw new RuntimeException("Inventario no encontrado para producto: " + idProducto);
+            }
         }
-        
-        log.info("Stock devuelto exitosamente");
+    }
+
+    /**
+     * Crea el inventario de los productos que aún no lo tienen
+     * @return true si se creó al menos uno
+     */
+    private boolean crearInventariosFaltantes(List<Long> idsProducto) {
+        boolean creados = false;
+        for (Long idProducto : idsProducto) {
+            if (!inventarioRepository.existsByProductoIdProducto(idProducto)) {
+                Producto producto = productoRepository.findById(idProducto)
+                        .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+                obtenerOCrearInventario(producto);
+                creados = true;
+            }
+        }
+        return creados;
+    }
+
+    private StockInsuficienteException stockInsuficiente(Long idProducto, Integer solicitado) {
+        StockInventarioView stock = leerStocks(List.of(idProducto)).get(idProducto);
+        String nombre = stock != null ? stock.getNombreProducto() : "producto " + idProducto;
+        int disponible = stock != null ? stock.getStockActual() - stock.getStockReservado() : 0;
+        return new StockInsuficienteException(
+            String.format("Stock insuficiente para %s. Disponible: %d, Solicitado: %d",
+                nombre, disponible, solicitado)
+        );
     }
 
     /**
@@ -206,29 +292,39 @@ public class InventarioService {
     }
 
     /**
-     * Registra un movimiento de inventario
+     * Registra los movimientos de todo el carrito en un solo lote.
+     * El valor nuevo se lee de la BD y el anterior se reconstruye con la cantidad.
+     * @param contador contador afectado (stock actual o reservado)
+     * @param signoAnterior +1 si el contador bajó con la operación, -1 si subió
      */
-    private void registrarMovimiento(
+    private void registrarMovimientos(
             Usuario usuario,
-            Producto producto,
+            SortedMap<Long, Integer> cantidades,
             MovimientoInventario.TipoMovimiento tipo,
-            Integer cantidad,
-            Integer stockAnterior,
-            Integer stockNuevo,
+            ToIntFunction<StockInventarioView> contador,
+            int signoAnterior,
             String motivo) {
-        
-        MovimientoInventario movimiento = new MovimientoInventario(
-            usuario,
-            producto,
-            tipo,
-            cantidad,
-            stockAnterior,
-            stockNuevo,
-            motivo
-        );
-        
-        movimientoRepository.save(movimiento);
-        log.debug("Movimiento registrado: {} - {} unidades", tipo, cantidad);
+
+        Map<Long, StockInventarioView> stocks = leerStocks(cantidades.keySet());
+        List<MovimientoInventario> movimientos = new ArrayList<>(cantidades.size());
+        for (Map.Entry<Long, Integer> entrada : cantidades.entrySet()) {
+            int nuevo = contador.applyAsInt(stocks.get(entrada.getKey()));
+            movimientos.add(new MovimientoInventario(
+                usuario,
+                productoRepository.getReferenceById(entrada.getKey()),
+                tipo,
+                entrada.getValue(),
+                nuevo + signoAnterior * entrada.getValue(),
+                nuevo,
+                motivo
+            ));
+        }
+
+        inventarioLoteRepository.insertarMovimientos(movimientos);
+        for (Long idProducto : cantidades.keySet()) {
+            eventPublisher.publishEvent(new ProductoModificadoEvent(idProducto, ProductoModificadoEvent.Tipo.STOCK));
+        }
+        log.debug("{} movimientos registrados: {}", movimientos.size(), tipo);
     }
 
     /**
@@ -239,4 +335,4 @@ public class InventarioService {
             super(mensaje);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,362 @@
+package pe.com.ikaza.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.com.ikaza.backend.entity.MovimientoInventario;
+import pe.com.ikaza.backend.entity.Producto;
+import pe.com.ikaza.backend.entity.Usuario;
+import pe.com.ikaza.backend.event.ProductoModificadoEvent;
+import pe.com.ikaza.backend.repository.InventarioLoteRepository;
+import pe.com.ikaza.backend.repository.InventarioLoteRepository.OperacionStock;
+import pe.com.ikaza.backend.repository.InventarioRepository;
+import pe.com.ikaza.backend.repository.StockInventarioView;
+import pe.com.ikaza.backend.service.InventarioService.StockInsuficienteException;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Libro de stock en memoria para productos "calientes" (ventas flash).
+ * Para los productos configurados en inventario.hot-sku.productos, los contadores
+ * actual/reservado viven en memoria y cada operación se acepta o rechaza con un
+ * compare-and-set, sin tocar la fila de inventario. Las variaciones acumuladas y los
+ * movimientos se persisten por lotes cada inventario.hot-sku.intervalo-flush-ms.
+ *
+ * Los ajustes de administrador sobre estos productos también entran como variaciones
+ * (ver ajustar): nadie más escribe sus columnas de stock.
+ *
+ * Invariante: contadores en memoria = fila en BD + variaciones pendientes.
+ * Al reiniciar, los contadores se recargan desde la tabla; se pierden como mucho
+ * las variaciones de un intervalo de flush si el proceso termina de forma abrupta.
+ */
+@Component
+@Slf4j
+public class LibroStockCaliente {
+
+    private record Contadores(int actual, int reservado) {
+
+        /**
+         * Aplica la operación si se cumple su condición; null si no
+         */
+        Contadores aplicar(OperacionStock operacion, int cantidad) {
+            return switch (operacion) {
+                case RESERVAR -> actual - reservado >= cantidad ? new Contadores(actual, reservado + cantidad) : null;
+                case LIBERAR -> reservado >= cantidad ? new Contadores(actual, reservado - cantidad) : null;
+                case CONFIRMAR -> reservado >= cantidad && actual >= cantidad
+                        ? new Contadores(actual - cantidad, reservado - cantidad) : null;
+                case DEVOLVER -> new Contadores(actual + cantidad, reservado);
+            };
+        }
+    }
+
+    private static final class EstadoStock {
+        private final AtomicReference<Contadores> contadores;
+        private final AtomicInteger deltaActual = new AtomicInteger();
+        private final AtomicInteger deltaReservado = new AtomicInteger();
+
+        private EstadoStock(Contadores iniciales) {
+            this.contadores = new AtomicReference<>(iniciales);
+        }
+
+        private void sumar(int actual, int reservado) {
+            contadores.updateAndGet(c -> new Contadores(c.actual() + actual, c.reservado() + reservado));
+            deltaActual.addAndGet(actual);
+            deltaReservado.addAndGet(reservado);
+        }
+    }
+
+    private record Aplicado(Long idProducto, Contadores antes, Contadores despues) {
+    }
+
+    /**
+     * Resultado de un ajuste de administrador sobre un producto caliente
+     */
+    public record AjusteAplicado(int stockAnterior, int stockActual, int stockReservado) {
+    }
+
+    private final InventarioRepository inventarioRepository;
+    private final InventarioLoteRepository inventarioLoteRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> productosConfigurados;
+
+    private final Map<Long, EstadoStock> estados = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<MovimientoInventario> movimientosPendientes = new ConcurrentLinkedDeque<>();
+
+    /** Serializa los flush entre sí; las reservas no lo usan */
+    private final ReentrantLock bloqueoFlush = new ReentrantLock();
+
+    private volatile boolean cargado = false;
+
+    public LibroStockCaliente(
+            InventarioRepository inventarioRepository,
+            InventarioLoteRepository inventarioLoteRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventario.hot-sku.productos:}") Set<Long> productosConfigurados) {
+        this.inventarioRepository = inventarioRepository;
+        this.inventarioLoteRepository = inventarioLoteRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productosConfigurados = productosConfigurados;
+    }
+
+    /**
+     * Carga los contadores de los productos calientes desde la tabla inventario
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        if (productosConfigurados.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (StockInventarioView stock : inventarioRepository.consultarStocks(productosConfigurados)) {
+                estados.put(stock.getIdProducto(),
+                        new EstadoStock(new Contadores(stock.getStockActual(), stock.getStockReservado())));
+            }
+        });
+        cargado = true;
+        log.info("Libro de stock en memoria activo para productos: {}", estados.keySet());
+    }
+
+    /**
+     * Separa del carrito los productos gestionados en memoria
+     * @return cantidades de los productos calientes (se quitan del mapa recibido)
+     */
+    public SortedMap<Long, Integer> separarCalientes(SortedMap<Long, Integer> cantidades) {
+        SortedMap<Long, Integer> calientes = new TreeMap<>();
+        if (!cargado) {
+            return calientes;
+        }
+        Iterator<Map.Entry<Long, Integer>> it = cantidades.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Integer> entrada = it.next();
+            if (estados.containsKey(entrada.getKey())) {
+                calientes.put(entrada.getKey(), entrada.getValue());
+                it.remove();
+            }
+        }
+        return calientes;
+    }
+
+    /**
+     * Stock disponible (actual - reservado) según el libro
+     */
+    public int disponible(Long idProducto) {
+        Contadores c = estados.get(idProducto).contadores.get();
+        return c.actual() - c.reservado();
+    }
+
+    /**
+     * Aplica la operación a todos los productos o a ninguno.
+     * Si hay una transacción activa, un rollback posterior revierte los contadores y
+     * los movimientos solo se encolan tras el commit.
+     */
+    public void aplicar(OperacionStock operacion, SortedMap<Long, Integer> cantidades,
+                        Usuario usuario, MovimientoInventario.TipoMovimiento tipo, String motivo) {
+        List<Aplicado> aplicados = new ArrayList<>(cantidades.size());
+        for (Map.Entry<Long, Integer> entrada : cantidades.entrySet()) {
+            Aplicado aplicado = aplicarEnProducto(operacion, entrada.getKey(), entrada.getValue());
+            if (aplicado == null) {
+                revertir(aplicados);
+                throw errorDeOperacion(operacion, entrada.getKey(), entrada.getValue());
+            }
+            aplicados.add(aplicado);
+        }
+
+        List<MovimientoInventario> movimientos = crearMovimientos(operacion, aplicados, usuario, tipo, motivo);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        movimientosPendientes.addAll(movimientos);
+                    } else {
+                        revertir(aplicados);
+                    }
+                }
+            });
+        } else {
+            movimientosPendientes.addAll(movimientos);
+        }
+    }
+
+    /**
+     * Aplica en el libro un ajuste de administrador (entrada, salida o ajuste a un valor).
+     * El cambio viaja como variación en el siguiente flush, igual que las reservas, así la
+     * fila de inventario de un producto caliente solo la escribe el libro. Un rollback
+     * posterior lo revierte.
+     * @return stock actual antes y después, o null si el producto no está en el libro
+     */
+    public AjusteAplicado ajustar(Long idProducto, MovimientoInventario.TipoMovimiento tipo, int cantidad) {
+        EstadoStock estado = cargado ? estados.get(idProducto) : null;
+        if (estado == null) {
+            return null;
+        }
+        Contadores antes;
+        Contadores despues;
+        do {
+            antes = estado.contadores.get();
+            int nuevoActual = switch (tipo) {
+                case ENTRADA -> antes.actual() + cantidad;
+                case SALIDA -> {
+                    if (antes.actual() < cantidad) {
+                        throw new IllegalArgumentException(String.format(
+                                "Stock insuficiente. Actual: %d, Solicitado: %d", antes.actual(), cantidad));
+                    }
+                    yield antes.actual() - cantidad;
+                }
+                case AJUSTE -> cantidad;
+                default -> throw new IllegalArgumentException("Tipo de movimiento no válido: " + tipo);
+            };
+            despues = new Contadores(nuevoActual, antes.reservado());
+        } while (!estado.contadores.compareAndSet(antes, despues));
+
+        int variacion = despues.actual() - antes.actual();
+        estado.deltaActual.addAndGet(variacion);
+
+        List<Aplicado> aplicados = List.of(new Aplicado(idProducto, antes, despues));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        revertir(aplicados);
+                    }
+                }
+            });
+        }
+        return new AjusteAplicado(antes.actual(), despues.actual(), despues.reservado());
+    }
+
+    /**
+     * Persiste en un lote las variaciones acumuladas y los movimientos encolados
+     */
+    @Scheduled(fixedDelayString = "${inventario.hot-sku.intervalo-flush-ms:500}")
+    public void persistirPendientes() {
+        if (estados.isEmpty()) {
+            return;
+        }
+        bloqueoFlush.lock();
+        try {
+            SortedMap<Long, int[]> deltas = new TreeMap<>();
+            for (Map.Entry<Long, EstadoStock> entrada : estados.entrySet()) {
+                int actual = entrada.getValue().deltaActual.getAndSet(0);
+                int reservado = entrada.getValue().deltaReservado.getAndSet(0);
+                if (actual != 0 || reservado != 0) {
+                    deltas.put(entrada.getKey(), new int[] { actual, reservado });
+                }
+            }
+            List<MovimientoInventario> movimientos = new ArrayList<>();
+            MovimientoInventario movimiento;
+            while ((movimiento = movimientosPendientes.pollFirst()) != null) {
+                movimientos.add(movimiento);
+            }
+            if (deltas.isEmpty() && movimientos.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!deltas.isEmpty()) {
+                        inventarioLoteRepository.aplicarDeltas(deltas);
+                        inventarioLoteRepository.sincronizarStockProductos(deltas.keySet());
+                    }
+                    inventarioLoteRepository.insertarMovimientos(movimientos);
+                });
+            } catch (Exception e) {
+                // Se devuelven al libro para el siguiente intento
+                log.error("Error persistiendo el libro de stock, se reintentará: {}", e.getMessage());
+                deltas.forEach((id, delta) -> {
+                    estados.get(id).deltaActual.addAndGet(delta[0]);
+                    estados.get(id).deltaReservado.addAndGet(delta[1]);
+                });
+                for (int i = movimientos.size() - 1; i >= 0; i--) {
+                    movimientosPendientes.addFirst(movimientos.get(i));
+                }
+                return;
+            }
+
+            log.debug("Libro de stock persistido: {} productos, {} movimientos", deltas.size(), movimientos.size());
+            for (Long idProducto : deltas.keySet()) {
+                eventPublisher.publishEvent(new ProductoModificadoEvent(idProducto, ProductoModificadoEvent.Tipo.STOCK));
+            }
+        } finally {
+            bloqueoFlush.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void alDetener() {
+        persistirPendientes();
+    }
+
+    private Aplicado aplicarEnProducto(OperacionStock operacion, Long idProducto, int cantidad) {
+        EstadoStock estado = estados.get(idProducto);
+        Contadores antes;
+        Contadores despues;
+        do {
+            antes = estado.contadores.get();
+            despues = antes.aplicar(operacion, cantidad);
+            if (despues == null) {
+                return null;
+            }
+        } while (!estado.contadores.compareAndSet(antes, despues));
+
+        estado.deltaActual.addAndGet(despues.actual() - antes.actual());
+        estado.deltaReservado.addAndGet(despues.reservado() - antes.reservado());
+        return new Aplicado(idProducto, antes, despues);
+    }
+
+    private void revertir(List<Aplicado> aplicados) {
+        for (Aplicado aplicado : aplicados) {
+            estados.get(aplicado.idProducto()).sumar(
+                    aplicado.antes().actual() - aplicado.despues().actual(),
+                    aplicado.antes().reservado() - aplicado.despues().reservado());
+        }
+    }
+
+    private List<MovimientoInventario> crearMovimientos(OperacionStock operacion, List<Aplicado> aplicados,
+                                                         Usuario usuario, MovimientoInventario.TipoMovimiento tipo,
+                                                         String motivo) {
+        boolean sobreReservado = operacion == OperacionStock.RESERVAR || operacion == OperacionStock.LIBERAR;
+        LocalDateTime ahora = LocalDateTime.now();
+        List<MovimientoInventario> movimientos = new ArrayList<>(aplicados.size());
+        for (Aplicado aplicado : aplicados) {
+            Producto producto = new Producto();
+            producto.setIdProducto(aplicado.idProducto());
+            int anterior = sobreReservado ? aplicado.antes().reservado() : aplicado.antes().actual();
+            int nuevo = sobreReservado ? aplicado.despues().reservado() : aplicado.despues().actual();
+            MovimientoInventario movimiento = new MovimientoInventario(
+                    usuario, producto, tipo, Math.abs(nuevo - anterior), anterior, nuevo, motivo);
+            movimiento.setFechaMovimiento(ahora);
+            movimientos.add(movimiento);
+        }
+        return movimientos;
+    }
+
+    private RuntimeException errorDeOperacion(OperacionStock operacion, Long idProducto, int cantidad) {
+        return switch (operacion) {
+            case RESERVAR -> new StockInsuficienteException(String.format(
+                    "Stock insuficiente para producto %d. Disponible: %d, Solicitado: %d",
+                    idProducto, disponible(idProducto), cantidad));
+            case LIBERAR -> new IllegalStateException("No hay suficiente stock reservado para liberar");
+            default -> new IllegalStateException("Stock reservado insuficiente para producto: " + idProducto);
+        };
+    }
+}
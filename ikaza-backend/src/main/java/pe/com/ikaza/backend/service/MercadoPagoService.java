@@ -1,13 +1,21 @@
 package pe.com.ikaza.backend.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import pe.com.ikaza.backend.dto.request.ItemPedidoRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Slf4j
@@ -21,12 +29,44 @@ public class MercadoPagoService {
 
     private static final String MP_API_URL = "https://api.mercadopago.com/checkout/preferences";
     
-    private final RestTemplate restTemplate;
+    private final ClientePasarelaMercadoPago clientePasarela;
     private final ObjectMapper objectMapper;
 
-    public MercadoPagoService() {
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
+    /** Pagos en estado final (no cambian en la ventana del TTL) */
+    private final Cache<String, JsonNode> pagosFinalizados;
+    private final Set<String> estadosFinales;
+
+    /** Consultas en curso por paymentId, para compartir una sola llamada */
+    private final ConcurrentHashMap<String, CompletableFuture<JsonNode>> consultasEnCurso = new ConcurrentHashMap<>();
+
+    private final Counter consultasAhorradasCache;
+    private final Counter consultasAhorradasCompartidas;
+
+    public MercadoPagoService(
+            ClientePasarelaMercadoPago clientePasarela,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${mercadopago.consulta-cache.ttl-segundos:60}") long ttlSegundos,
+            @Value("${mercadopago.consulta-cache.tamano-maximo:10000}") long tamanoMaximo,
+            @Value("${mercadopago.consulta-cache.estados:approved,rejected,cancelled,refunded}") Set<String> estadosFinales) {
+        this.clientePasarela = clientePasarela;
+        this.objectMapper = objectMapper;
+        this.estadosFinales = estadosFinales;
+        this.pagosFinalizados = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pagosFinalizados, "mercadopago.pagos");
+
+        this.consultasAhorradasCache = Counter.builder("mercadopago.consultas.ahorradas")
+                .tag("motivo", "cache")
+                .description("Consultas de pago que no llegaron a la pasarela")
+                .register(meterRegistry);
+        this.consultasAhorradasCompartidas = Counter.builder("mercadopago.consultas.ahorradas")
+                .tag("motivo", "compartida")
+                .description("Consultas de pago que no llegaron a la pasarela")
+                .register(meterRegistry);
     }
 
     /**
@@ -76,11 +116,7 @@ public class MercadoPagoService {
 
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
 
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                MP_API_URL, 
-                request, 
-                String.class
-            );
+            ResponseEntity<String> response = clientePasarela.crearPreferencia(MP_API_URL, request);
 
             JsonNode responseJson = objectMapper.readTree(response.getBody());
 
@@ -105,8 +141,46 @@ public class MercadoPagoService {
 
     /**
      * Consulta el estado de un pago en Mercado Pago.
+     * Los pagos en estado final se sirven desde caché y las consultas simultáneas
+     * del mismo pago comparten una sola llamada a la pasarela.
      */
     public JsonNode consultarPago(String paymentId) {
+        JsonNode enCache = pagosFinalizados.getIfPresent(paymentId);
+        if (enCache != null) {
+            consultasAhorradasCache.increment();
+            return enCache;
+        }
+
+        CompletableFuture<JsonNode> propia = new CompletableFuture<>();
+        CompletableFuture<JsonNode> enCurso = consultasEnCurso.putIfAbsent(paymentId, propia);
+        if (enCurso != null) {
+            consultasAhorradasCompartidas.increment();
+            try {
+                return enCurso.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException causa) {
+                    throw causa;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            JsonNode pago = consultarPagoEnPasarela(paymentId);
+            if (estadosFinales.contains(pago.path("status").asText())) {
+                pagosFinalizados.put(paymentId, pago);
+            }
+            propia.complete(pago);
+            return pago;
+        } catch (RuntimeException e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            consultasEnCurso.remove(paymentId, propia);
+        }
+    }
+
+    private JsonNode consultarPagoEnPasarela(String paymentId) {
         try {
             String url = "https://api.mercadopago.com/v1/payments/" + paymentId;
             
@@ -115,12 +189,7 @@ public class MercadoPagoService {
             
             HttpEntity<Void> request = new HttpEntity<>(headers);
             
-            ResponseEntity<String> response = restTemplate.exchange(
-                url, 
-                HttpMethod.GET, 
-                request, 
-                String.class
-            );
+            ResponseEntity<String> response = clientePasarela.consultarPago(url, request);
             
             return objectMapper.readTree(response.getBody());
             
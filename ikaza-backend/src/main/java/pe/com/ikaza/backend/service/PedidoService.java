@@ -3,8 +3,14 @@ package pe.com.ikaza.backend.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import pe.com.ikaza.backend.dto.request.ItemPedidoRequest;
 import pe.com.ikaza.backend.dto.request.PedidoRequest;
@@ -30,11 +36,13 @@ import pe.com.ikaza.backend.repository.PedidoRepository;
 import pe.com.ikaza.backend.repository.ProductoRepository;
 import pe.com.ikaza.backend.repository.UsuarioRepository;
 import pe.com.ikaza.backend.service.InventarioService.StockInsuficienteException;
+import pe.com.ikaza.backend.utils.CursorCodec;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -63,66 +71,123 @@ public class PedidoService {
     private final ProcesadorPagoService procesadorPagoService;
     private final MercadoPagoService mercadoPagoService;
     private final EmailService emailService;
+    private final ReintentoTransaccional reintentoTransaccional;
+    private final DeduplicadorPagos deduplicadorPagos;
 
     // ==================== MÉTODOS PRINCIPALES ====================
 
     /**
      * FLUJO ASÍNCRONO: Para MercadoPago
-     * 1. Valida stock
-     * 2. Crea pedido preliminar
-     * 3. Reserva stock
-     * 4. Genera URL de pago
-     * 5. Retorna URL para redirección
+     * Fase 1 (transacción corta): valida stock, crea el pedido preliminar y reserva stock
+     * Fase 2 (sin transacción): genera la preferencia en MercadoPago
+     * Fase 3 (transacción corta): guarda el ID de la preferencia en el pedido
+     * Si la pasarela falla, se compensa liberando el stock y cancelando el pedido.
+     *
+     * Así la llamada HTTP no retiene bloqueos de inventario ni una conexión del pool.
+     * Las transacciones se reintentan (con jitter) si la base de datos las aborta por
+     * deadlock o serialización; las filas de inventario se bloquean en orden de ID.
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PedidoResponse procesarPedidoMercadoPago(PedidoRequest request, Integer idUsuario, String emailUsuario) {
+        log.info("Iniciando pedido MERCADO PAGO para usuario: {}", idUsuario);
+
+        // Fase 1: pedido + reserva
+        Pedido pedido;
         try {
-            log.info("Iniciando pedido MERCADO PAGO para usuario: {}", idUsuario);
+            pedido = reintentoTransaccional.ejecutar("checkout-mercadopago",
+                    () -> crearPedidoConReserva(request, idUsuario));
+        } catch (StockInsuficienteException e) {
+            log.error("Stock insuficiente: {}", e.getMessage());
+            return PedidoResponse.error("Stock insuficiente: " + e.getMessage());
+        } catch (ConcurrencyFailureException e) {
+            return PedidoResponse.error("Hay mucha demanda en este momento. Por favor, intenta nuevamente.");
+        } catch (Exception e) {
+            log.error("Error al procesar pedido MercadoPago", e);
+            return PedidoResponse.error("Error al procesar el pedido: " + e.getMessage());
+        }
 
-            // 1. Validar stock
-            inventarioService.validarStockDisponible(request.getCartItems());
+        // Fase 2: pasarela, fuera de cualquier transacción
+        ResultadoPago resultadoPago;
+        try {
+            resultadoPago = procesadorPagoService.procesarPago(request, idUsuario, pedido.getIdPedido());
+        } catch (Exception e) {
+            log.error("Error generando preferencia para pedido {}", pedido.getNumeroPedido(), e);
+            compensarPedidoSinPreferencia(pedido.getIdPedido(), request.getCartItems(), idUsuario);
+            return PedidoResponse.error("Error al procesar el pedido: " + e.getMessage());
+        }
 
-            // 2. Crear pedido preliminar
-            Pedido pedido = crearPedidoPreliminar(request, idUsuario);
+        // Fase 3: registrar la preferencia
+        try {
+            reintentoTransaccional.ejecutar("checkout-preferencia", () -> {
+                Pedido actual = pedidoRepository.findById(pedido.getIdPedido())
+                        .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
+                actual.setTransaccionId(resultadoPago.getTransaccionId());
+                return pedidoRepository.save(actual);
+            });
+        } catch (Exception e) {
+            // La preferencia ya existe y el webhook ubica el pago por su propio ID
+            log.warn("No se pudo guardar la preferencia {} del pedido {}: {}",
+                    resultadoPago.getTransaccionId(), pedido.getNumeroPedido(), e.getMessage());
+        }
 
-            // 3. Crear detalles
-            crearDetallesPedido(pedido, request.getCartItems());
+        log.info("Pedido MercadoPago creado: {}", pedido.getNumeroPedido());
 
-            // 4. Reservar stock
-            Usuario usuario = usuarioRepository.findById(idUsuario).orElse(null);
-            inventarioService.reservarStock(request.getCartItems(), pedido.getIdPedido(), usuario);
+        return PedidoResponse.exitoConRedireccion(
+                pedido.getIdPedido(),
+                pedido.getNumeroPedido(),
+                resultadoPago.getUrlRedireccion(),
+                "Redirigiendo a Mercado Pago...");
+    }
 
-            // 5. Registrar historial inicial
-            registrarHistorialInicial(pedido);
+    /**
+     * Fase 1 del checkout: persiste el pedido y reserva el stock (un intento)
+     */
+    private Pedido crearPedidoConReserva(PedidoRequest request, Integer idUsuario) {
+        inventarioService.validarStockDisponible(request.getCartItems());
 
-            // 6. Generar preferencia de MercadoPago
-            ResultadoPago resultadoPago = procesadorPagoService.procesarPago(request, idUsuario, pedido.getIdPedido());
+        Pedido pedido = crearPedidoPreliminar(request, idUsuario);
+        crearDetallesPedido(pedido, request.getCartItems());
 
-            // 7. Actualizar transacción ID
-            pedido.setTransaccionId(resultadoPago.getTransaccionId());
-            pedidoRepository.save(pedido);
+        Usuario usuario = usuarioRepository.findById(idUsuario).orElse(null);
+        inventarioService.reservarStock(request.getCartItems(), pedido.getIdPedido(), usuario);
 
-            log.info("Pedido MercadoPago creado: {}", pedido.getNumeroPedido());
+        registrarHistorialInicial(pedido);
+        return pedido;
+    }
 
-            return PedidoResponse.exitoConRedireccion(
-                    pedido.getIdPedido(),
-                    pedido.getNumeroPedido(),
-                    resultadoPago.getUrlRedireccion(),
-                    "Redirigiendo a Mercado Pago...");
+    /**
+     * Compensación cuando la pasarela falla: libera la reserva y cancela el pedido.
+     * Si esto también falla, la limpieza programada libera el stock del pedido pendiente.
+     */
+    private void compensarPedidoSinPreferencia(Long idPedido, List<ItemPedidoRequest> items, Integer idUsuario) {
+        try {
+            reintentoTransaccional.ejecutar("checkout-compensacion", () -> {
+                Pedido pedido = pedidoRepository.findById(idPedido)
+                        .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
+                Usuario usuario = usuarioRepository.findById(idUsuario).orElse(null);
+                inventarioService.liberarStockReservado(items, idPedido, usuario);
 
-        } catch (StockInsuficienteException e) {
-            log.error("Stock insuficiente: {}", e.getMessage());
-            return PedidoResponse.error("Stock insuficiente: " + e.getMessage());
+                EstadoPedido estadoAnterior = pedido.getEstado();
+                pedido.setEstado(EstadoPedido.CANCELADO);
+                pedido.setEstadoPago(EstadoPago.RECHAZADO);
+                pedidoRepository.save(pedido);
+                registrarCambioEstado(pedido, estadoAnterior, EstadoPedido.CANCELADO);
+                return pedido;
+            });
+            log.info("Pedido {} cancelado y stock liberado tras fallo de la pasarela", idPedido);
         } catch (Exception e) {
-            log.error("Error al procesar pedido MercadoPago", e);
-            return PedidoResponse.error("Error al procesar el pedido: " + e.getMessage());
+            log.error("No se pudo compensar el pedido {}: {}", idPedido, e.getMessage());
         }
     }
 
     /**
-     * Confirma un pago de MercadoPago después del retorno del usuario
+     * Confirma un pago de MercadoPago después del retorno del usuario.
+     * Sigue el mismo esquema que el webhook: la consulta HTTP va fuera de transacción,
+     * un estado ya aplicado no se vuelve a procesar y el cambio se aplica con el
+     * pedido bloqueado. El correo de confirmación solo se encola cuando este
+     * retorno es el que aprueba el pedido (recargar la página no lo reenvía).
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PedidoResponse confirmarPagoMercadoPago(Long pedidoId, String paymentId, String status, Integer idUsuario) {
         try {
             log.info("Confirmando pago MercadoPago. PedidoId: {}, PaymentId: {}", pedidoId, paymentId);
@@ -133,13 +198,19 @@ public class PedidoService {
             JsonNode paymentInfo = mercadoPagoService.consultarPago(paymentId);
             String estadoMP = paymentInfo.get("status").asText();
 
-            // Actualizar pedido según estado
-            actualizarPedidoSegunEstadoMP(pedido, estadoMP, paymentId, paymentInfo);
-
-            // Enviar email si fue aprobado
-            if ("approved".equals(estadoMP)) {
-                String email = obtenerEmailUsuario(idUsuario);
-                emailService.enviarConfirmacionPedido(pedido, email);
+            if (deduplicadorPagos.yaAplicado(paymentId, estadoMP)) {
+                log.debug("Estado {} ya aplicado al pago {}, se omite", estadoMP, paymentId);
+                pedido = pedidoRepository.findById(pedidoId).orElse(pedido);
+            } else {
+                pedido = reintentoTransaccional.ejecutar("confirmacion-mercadopago", () -> {
+                    Pedido actual = pedidoRepository.findByIdParaActualizar(pedidoId)
+                            .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
+                    if (actualizarPedidoSegunEstadoMP(actual, estadoMP, paymentId, paymentInfo)
+                            && "approved".equals(estadoMP)) {
+                        emailService.encolarConfirmacionPedido(actual, obtenerEmailUsuario(idUsuario));
+                    }
+                    return actual;
+                });
             }
 
             return construirRespuestaConfirmacion(pedido, estadoMP);
@@ -151,9 +222,13 @@ public class PedidoService {
     }
 
     /**
-     * Webhook de MercadoPago
+     * Webhook de MercadoPago (lo invoca ColaWebhookMercadoPago)
+     * La consulta HTTP a la pasarela va fuera de transacción (las consultas
+     * simultáneas del mismo pago se agrupan en MercadoPagoService.consultarPago).
+     * Solo si el estado no fue aplicado se abre una transacción corta que bloquea
+     * el pedido, así dos notificaciones del mismo pago no lo actualizan a la vez.
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void procesarWebhookMercadoPago(String paymentId, String action) {
         try {
             log.info("Procesando webhook MercadoPago. PaymentId: {}", paymentId);
@@ -163,17 +238,31 @@ public class PedidoService {
                 log.warn("No se encontró pago para paymentId: {}", paymentId);
                 return;
             }
+            Long idPedido = pago.getPedido().getIdPedido();
 
             JsonNode paymentInfo = mercadoPagoService.consultarPago(paymentId);
             String estadoMP = paymentInfo.get("status").asText();
 
-            Pedido pedido = pago.getPedido();
-            actualizarPedidoSegunEstadoMP(pedido, estadoMP, paymentId, paymentInfo);
+            // Notificación repetida con un estado ya aplicado
+            if (deduplicadorPagos.yaAplicado(paymentId, estadoMP)) {
+                log.debug("Estado {} ya aplicado al pago {}, se omite", estadoMP, paymentId);
+                return;
+            }
+
+            reintentoTransaccional.ejecutar("webhook-mercadopago", () -> {
+                Pedido pedido = pedidoRepository.findByIdParaActualizar(idPedido)
+                        .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + idPedido));
+                // Con el bloqueo tomado, el pedido refleja lo aplicado por otra notificación
+                actualizarPedidoSegunEstadoMP(pedido, estadoMP, paymentId, paymentInfo);
+                return pedido;
+            });
 
             log.info("Webhook procesado exitosamente");
 
         } catch (Exception e) {
+            // Se propaga para que la cola de notificaciones lo reintente
             log.error("Error al procesar webhook", e);
+            throw new RuntimeException("Error al procesar webhook del pago " + paymentId + ": " + e.getMessage(), e);
         }
     }
 
@@ -219,6 +308,16 @@ public class PedidoService {
         return pedidoRepository.findByIdUsuario(idUsuario);
     }
 
+    /**
+     * Pedidos del usuario con paginación por cursor (más recientes primero)
+     */
+    @Transactional(readOnly = true)
+    public Window<Pedido> getPedidosByUserIdPorCursor(Integer idUsuario, String cursor, int tamano) {
+        Sort sort = Sort.by(Sort.Direction.DESC, "fechaPedido", "idPedido");
+        KeysetScrollPosition posicion = CursorCodec.decodificar(cursor, Set.of("fechaPedido", "idPedido"));
+        return pedidoRepository.findByIdUsuario(idUsuario, posicion, sort, Limit.of(tamano));
+    }
+
     public int contarDetallesPedido(Long idPedido) {
         return detallePedidoRepository.countByPedidoId(idPedido).intValue();
     }
@@ -278,12 +377,23 @@ public class PedidoService {
     }
 
     /**
-     * Actualiza el pedido según el estado de MercadoPago
+     * Actualiza el pedido según el estado de MercadoPago.
+     * Devuelve true solo si aplicó un cambio; el estado aplicado (nuevo o ya vigente)
+     * queda registrado en el deduplicador tras el commit.
      */
-    private void actualizarPedidoSegunEstadoMP(Pedido pedido, String estadoMP, String paymentId, JsonNode paymentInfo) {
+    private boolean actualizarPedidoSegunEstadoMP(Pedido pedido, String estadoMP, String paymentId, JsonNode paymentInfo) {
         EstadoPedido estadoAnterior = pedido.getEstado();
         EstadoPago estadoPagoAnterior = pedido.getEstadoPago();
 
+        // Transición sin cambios: no se vuelve a tocar inventario ni pago
+        EstadoPago estadoPagoDestino = mapearEstadoPagoMP(estadoMP);
+        if (estadoPagoDestino != null && estadoPagoDestino == estadoPagoAnterior
+                && paymentId.equals(pedido.getTransaccionId())) {
+            log.debug("Pedido {} ya está en {}, se omite la actualización", pedido.getNumeroPedido(), estadoPagoAnterior);
+            deduplicadorPagos.registrarAplicado(paymentId, estadoMP);
+            return false;
+        }
+
         Usuario usuario = usuarioRepository.findById(pedido.getIdUsuario()).orElse(null);
         List<ItemPedidoRequest> items = convertirDetallesAItems(pedido);
 
@@ -323,7 +433,7 @@ public class PedidoService {
 
             default:
                 log.warn("Estado de MercadoPago no manejado: {}", estadoMP);
-                return;
+                return false;
         }
 
         pedido.setTransaccionId(paymentId);
@@ -340,6 +450,21 @@ public class PedidoService {
         log.info("Pedido {} actualizado: {} -> {}, Pago: {} -> {}",
                 pedido.getNumeroPedido(), estadoAnterior, pedido.getEstado(),
                 estadoPagoAnterior, pedido.getEstadoPago());
+        deduplicadorPagos.registrarAplicado(paymentId, estadoMP);
+        return true;
+    }
+
+    /**
+     * Estado de pago que corresponde a cada estado de MercadoPago
+     */
+    private EstadoPago mapearEstadoPagoMP(String estadoMP) {
+        return switch (estadoMP) {
+            case "approved" -> EstadoPago.APROBADO;
+            case "pending", "in_process" -> EstadoPago.PROCESANDO;
+            case "rejected", "cancelled" -> EstadoPago.RECHAZADO;
+            case "refunded" -> EstadoPago.REEMBOLSADO;
+            default -> null;
+        };
     }
 
     /**
@@ -0,0 +1,86 @@
+package pe.com.ikaza.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import pe.com.ikaza.backend.utils.PlantillaHtml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Plantillas de correo (resources/templates/email), compiladas una vez al arrancar.
+ * Cada archivo se divide en secciones con la marca "<!-- @seccion nombre -->"
+ * y se accede a ellas como "archivo/seccion".
+ */
+@Component
+@Slf4j
+public class PlantillasCorreo {
+
+    public static final String CONFIRMACION_PEDIDO = "confirmacion-pedido";
+    public static final String CODIGO_VERIFICACION = "codigo-verificacion";
+    public static final String BUZON = "buzon";
+
+    private static final String CARPETA = "templates/email/";
+    private static final Pattern MARCA_SECCION = Pattern.compile("<!--\\s*@seccion\\s+(\\S+)\\s*-->");
+
+    private final Map<String, PlantillaHtml> plantillas = new HashMap<>();
+
+    @PostConstruct
+    public void cargar() {
+        for (String archivo : List.of(CONFIRMACION_PEDIDO, CODIGO_VERIFICACION, BUZON)) {
+            String fuente = leer(CARPETA + archivo + ".html");
+            Matcher marca = MARCA_SECCION.matcher(fuente);
+            String seccion = null;
+            int inicio = 0;
+            while (marca.find()) {
+                if (seccion != null) {
+                    registrar(archivo, seccion, fuente.substring(inicio, marca.start()));
+                }
+                seccion = marca.group(1);
+                inicio = marca.end();
+            }
+            if (seccion == null) {
+                throw new IllegalStateException("La plantilla " + archivo + " no tiene secciones");
+            }
+            registrar(archivo, seccion, fuente.substring(inicio));
+        }
+        log.info("{} plantillas de correo compiladas", plantillas.size());
+    }
+
+    /**
+     * Devuelve la sección compilada, p. ej. obtener(BUZON, "reclamo")
+     */
+    public PlantillaHtml obtener(String archivo, String seccion) {
+        PlantillaHtml plantilla = plantillas.get(archivo + "/" + seccion);
+        if (plantilla == null) {
+            throw new IllegalStateException("No existe la plantilla " + archivo + "/" + seccion);
+        }
+        return plantilla;
+    }
+
+    private void registrar(String archivo, String seccion, String texto) {
+        // Se quita la sangría del archivo: solo sirve para leerlo
+        String compacto = texto.lines()
+                .map(String::strip)
+                .filter(linea -> !linea.isEmpty())
+                .collect(Collectors.joining("\n"));
+        plantillas.put(archivo + "/" + seccion, PlantillaHtml.compilar(compacto));
+    }
+
+    private String leer(String ruta) {
+        try (InputStream in = new ClassPathResource(ruta).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer la plantilla " + ruta, e);
+        }
+    }
+}
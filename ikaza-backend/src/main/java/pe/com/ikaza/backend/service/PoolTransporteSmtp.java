@@ -0,0 +1,193 @@
+package pe.com.ikaza.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool de conexiones SMTP ya autenticadas.
+ * - Evita el connect + STARTTLS + AUTH por cada correo: las conexiones se reutilizan.
+ * - Limita las sesiones simultáneas con el servidor (max-conexiones).
+ * - Recicla cada conexión tras N mensajes o si estuvo inactiva demasiado tiempo.
+ */
+@Component
+@Slf4j
+public class PoolTransporteSmtp {
+
+    private final JavaMailSenderImpl mailSender;
+    private final Semaphore permisos;
+    private final BlockingDeque<Conexion> libres = new LinkedBlockingDeque<>();
+
+    private final int maxMensajesPorConexion;
+    private final long maxInactividadMs;
+    private final long esperaMs;
+
+    public PoolTransporteSmtp(
+            JavaMailSenderImpl mailSender,
+            @Value("${email.smtp.pool.max-conexiones:4}") int maxConexiones,
+            @Value("${email.smtp.pool.max-mensajes-por-conexion:50}") int maxMensajesPorConexion,
+            @Value("${email.smtp.pool.max-inactividad-ms:30000}") long maxInactividadMs,
+            @Value("${email.smtp.pool.espera-ms:5000}") long esperaMs) {
+        this.mailSender = mailSender;
+        this.permisos = new Semaphore(maxConexiones, true);
+        this.maxMensajesPorConexion = maxMensajesPorConexion;
+        this.maxInactividadMs = maxInactividadMs;
+        this.esperaMs = esperaMs;
+    }
+
+    /**
+     * Envía los mensajes por una conexión del pool.
+     * Lanza MailSendException con los mensajes que fallaron (el resto se envió).
+     */
+    public void enviar(List<MimeMessage> mensajes) {
+        if (mensajes.isEmpty()) {
+            return;
+        }
+        adquirirPermiso();
+
+        Conexion conexion = null;
+        Map<Object, Exception> fallidos = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < mensajes.size(); i++) {
+                MimeMessage mensaje = mensajes.get(i);
+                if (conexion == null || conexion.enviados >= maxMensajesPorConexion) {
+                    cerrar(conexion);
+                    conexion = null;
+                    try {
+                        conexion = obtener();
+                    } catch (MessagingException e) {
+                        // Sin conexión no se intenta el resto: todos fallan con el mismo error
+                        log.warn("No se pudo conectar con el servidor SMTP: {}", e.getMessage());
+                        for (MimeMessage pendiente : mensajes.subList(i, mensajes.size())) {
+                            fallidos.put(pendiente, e);
+                        }
+                        break;
+                    }
+                }
+                try {
+                    if (mensaje.getSentDate() == null) {
+                        mensaje.setSentDate(new Date());
+                    }
+                    mensaje.saveChanges();
+                    conexion.transport.sendMessage(mensaje, mensaje.getAllRecipients());
+                    conexion.enviados++;
+                } catch (MessagingException e) {
+                    fallidos.put(mensaje, e);
+                    // Si la conexión se cayó se descarta y el siguiente mensaje abre otra
+                    if (conexion != null && !conexion.transport.isConnected()) {
+                        cerrar(conexion);
+                        conexion = null;
+                    }
+                }
+            }
+        } finally {
+            devolver(conexion);
+            permisos.release();
+        }
+
+        if (!fallidos.isEmpty()) {
+            throw new MailSendException(fallidos);
+        }
+    }
+
+    /**
+     * Cierra las conexiones libres que llevan demasiado tiempo sin usarse
+     */
+    @Scheduled(fixedDelayString = "${email.smtp.pool.max-inactividad-ms:30000}")
+    public void cerrarInactivas() {
+        long limite = System.currentTimeMillis() - maxInactividadMs;
+        libres.removeIf(c -> {
+            if (c.ultimoUso < limite) {
+                cerrar(c);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void cerrarTodas() {
+        Conexion conexion;
+        while ((conexion = libres.poll()) != null) {
+            cerrar(conexion);
+        }
+    }
+
+    private void adquirirPermiso() {
+        try {
+            if (!permisos.tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("No hay conexiones SMTP disponibles");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Envío de correo interrumpido", e);
+        }
+    }
+
+    private Conexion obtener() throws MessagingException {
+        long limite = System.currentTimeMillis() - maxInactividadMs;
+        Conexion conexion;
+        while ((conexion = libres.pollFirst()) != null) {
+            if (conexion.ultimoUso >= limite && conexion.transport.isConnected()) {
+                return conexion;
+            }
+            cerrar(conexion);
+        }
+
+        Transport transport = mailSender.getSession().getTransport(
+                mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp");
+        transport.connect(mailSender.getHost(), mailSender.getPort(),
+                mailSender.getUsername(), mailSender.getPassword());
+        log.debug("Nueva conexión SMTP abierta con {}", mailSender.getHost());
+        return new Conexion(transport);
+    }
+
+    private void devolver(Conexion conexion) {
+        if (conexion == null) {
+            return;
+        }
+        if (conexion.enviados >= maxMensajesPorConexion) {
+            cerrar(conexion);
+            return;
+        }
+        conexion.ultimoUso = System.currentTimeMillis();
+        libres.offerFirst(conexion);
+    }
+
+    private void cerrar(Conexion conexion) {
+        if (conexion == null) {
+            return;
+        }
+        try {
+            conexion.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error cerrando conexión SMTP: {}", e.getMessage());
+        }
+    }
+
+    private static final class Conexion {
+        private final Transport transport;
+        private int enviados;
+        private long ultimoUso = System.currentTimeMillis();
+
+        private Conexion(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -1,24 +1,41 @@
 package pe.com.ikaza.backend.service;
 
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pe.com.ikaza.backend.dto.request.ProductoRequest;
 import pe.com.ikaza.backend.dto.request.ProductoUpdateRequest;
+import pe.com.ikaza.backend.dto.response.CursorPageResponse;
 import pe.com.ikaza.backend.dto.response.ProductoDetalleResponse;
 import pe.com.ikaza.backend.dto.response.ProductoResponse;
+import pe.com.ikaza.backend.dto.response.SugerenciaResponse;
+import pe.com.ikaza.backend.config.CacheConfig;
 import pe.com.ikaza.backend.entity.*;
+import pe.com.ikaza.backend.event.ProductoModificadoEvent;
 import pe.com.ikaza.backend.repository.CategoriaRepository;
 import pe.com.ikaza.backend.repository.InventarioRepository;
 import pe.com.ikaza.backend.repository.ProductoDetalleRepository;
+import pe.com.ikaza.backend.repository.ProductoListadoView;
 import pe.com.ikaza.backend.repository.ProductoRepository;
+import pe.com.ikaza.backend.utils.CursorCodec;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class ProductoService {
 
@@ -34,24 +51,114 @@ public class ProductoService {
     @Autowired
     private ProductoDetalleRepository productoDetalleRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private IndiceBusquedaProductos indiceBusqueda;
+
+    @Autowired
+    private IndiceSugerenciasProductos indiceSugerencias;
+
+    @Autowired
+    private LibroStockCaliente libroStock;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Propiedades por las que se puede ordenar el listado del catálogo
+     */
+    private static final Set<String> ORDENES_CATALOGO = Set.of(
+            "idProducto", "nombreProducto", "precio", "stock",
+            "calificacionPromedio", "fechaCreacion", "fechaActualizacion", "nombreCategoria");
+
+    /**
+     * Listado público del catálogo.
+     * Usa una proyección nativa que solo lee las columnas de ProductoResponse
+     * (incluida la imagen principal), sin pasar por entidades administradas.
+     */
     @Transactional(readOnly = true)
     public Page<ProductoResponse> obtenerProductosPaginados(Pageable pageable) {
-        return productoRepository.findAll(pageable)
-                .map(this::convertirAResponse);
+        return productoRepository.listarCatalogo(normalizarOrdenCatalogo(pageable))
+                .map(this::convertirVistaAResponse);
+    }
+
+    /**
+     * Propiedades por las que se puede ordenar con paginación por cursor (columnas no nulas)
+     */
+    private static final Set<String> ORDENES_CURSOR = Set.of(
+            "idProducto", "nombreProducto", "precio", "fechaCreacion");
+
+    /**
+     * Listado del catálogo con paginación por cursor.
+     * Cada página filtra por la última clave vista, así la página N cuesta lo mismo que la primera.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProductoResponse> obtenerProductosPorCursor(
+            String cursor, int tamano, String orden, Sort.Direction direccion) {
+        Sort sort = ordenCursor(orden, direccion);
+        KeysetScrollPosition posicion = CursorCodec.decodificar(cursor, propiedadesDe(sort));
+        Window<Producto> window = productoRepository.findBy(posicion, sort, Limit.of(tamano));
+        return CursorPageResponse.desde(window, convertirLista(window.getContent()));
+    }
+
+    /**
+     * Productos de una categoría con paginación por cursor
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProductoResponse> obtenerProductosPorCategoriaPorCursor(
+            Long idCategoria, String cursor, int tamano, String orden, Sort.Direction direccion) {
+        Sort sort = ordenCursor(orden, direccion);
+        KeysetScrollPosition posicion = CursorCodec.decodificar(cursor, propiedadesDe(sort));
+        Window<Producto> window = productoRepository.findByCategoriaIdCategoria(
+                idCategoria, posicion, sort, Limit.of(tamano));
+        return CursorPageResponse.desde(window, convertirLista(window.getContent()));
     }
 
     @Transactional(readOnly = true)
     public Page<ProductoResponse> obtenerProductosPorCategoria(Long idCategoria, Pageable pageable) {
-        return productoRepository.findByCategoriaIdCategoria(idCategoria, pageable)
-                .map(this::convertirAResponse);
+        return convertirPagina(productoRepository.findByCategoriaIdCategoria(idCategoria, pageable));
     }
 
+    /**
+     * Búsqueda del catálogo.
+     * Con el índice en memoria disponible los resultados vienen ordenados por relevancia
+     * y sin distinguir tildes; si no, se usa la consulta LIKE original.
+     */
     @Transactional(readOnly = true)
     public Page<ProductoResponse> buscarProductos(String texto, Pageable pageable) {
-        return productoRepository.buscarPorTexto(texto, pageable)
-                .map(this::convertirAResponse);
+        if (!indiceBusqueda.isDisponible()) {
+            return convertirPagina(productoRepository.buscarPorTexto(texto, pageable));
+        }
+
+        List<Long> ids = indiceBusqueda.buscar(texto);
+        int desde = (int) Math.min(pageable.getOffset(), ids.size());
+        int hasta = Math.min(desde + pageable.getPageSize(), ids.size());
+        List<Long> idsPagina = ids.subList(desde, hasta);
+        if (idsPagina.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, ids.size());
+        }
+
+        // Respetar el orden por relevancia del índice
+        Map<Long, Producto> porId = productoRepository.findAllByIdIn(new ArrayList<>(idsPagina)).stream()
+                .collect(Collectors.toMap(Producto::getIdProducto, p -> p));
+        List<Producto> productos = idsPagina.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(convertirLista(productos), pageable, ids.size());
     }
 
+    /**
+     * Sugerencias para el autocompletado del buscador (sin acceso a base de datos)
+     */
+    public List<SugerenciaResponse> obtenerSugerencias(String q, int limite) {
+        return indiceSugerencias.sugerir(q, limite);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CACHE_PRODUCTOS, key = "#id")
     @Transactional(readOnly = true)
     public ProductoResponse obtenerProductoPorId(Long id) {
         Producto producto = productoRepository.findById(id)
@@ -59,6 +166,7 @@ public class ProductoService {
         return convertirAResponse(producto);
     }
 
+    @Cacheable(cacheNames = CacheConfig.CACHE_PRODUCTO_DETALLE, key = "#id")
     @Transactional(readOnly = true)
     public ProductoDetalleResponse obtenerDetalleProducto(Long id) {
         Producto producto = productoRepository.findById(id)
@@ -156,6 +264,8 @@ public class ProductoService {
             crearProductoDetalle(guardado, request);
         }
 
+        eventPublisher.publishEvent(new ProductoModificadoEvent(
+                guardado.getIdProducto(), ProductoModificadoEvent.Tipo.CREADO));
         return convertirAResponse(guardado);
     }
 
@@ -184,12 +294,15 @@ public class ProductoService {
 
         if (request.getStock() != null) {
             producto.setStock(request.getStock());
-            Inventario inventario = inventarioRepository.findByProductoIdProducto(id)
-                    .orElse(null);
-
-            if (inventario != null) {
-                inventario.setStockActual(request.getStock());
-                inventarioRepository.save(inventario);
+            // Producto caliente: el libro en memoria aplica el ajuste y lo persiste como variación
+            if (libroStock.ajustar(id, MovimientoInventario.TipoMovimiento.AJUSTE, request.getStock()) == null) {
+                Inventario inventario = inventarioRepository.findByProductoIdProducto(id)
+                        .orElse(null);
+
+                if (inventario != null) {
+                    inventario.setStockActual(request.getStock());
+                    inventarioRepository.save(inventario);
+                }
             }
         }
 
@@ -198,6 +311,7 @@ public class ProductoService {
         }
 
         Producto actualizado = productoRepository.save(producto);
+        eventPublisher.publishEvent(new ProductoModificadoEvent(id, ProductoModificadoEvent.Tipo.ACTUALIZADO));
         return convertirAResponse(actualizado);
     }
 
@@ -206,8 +320,10 @@ public class ProductoService {
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
         productoRepository.delete(producto);
+        eventPublisher.publishEvent(new ProductoModificadoEvent(id, ProductoModificadoEvent.Tipo.ELIMINADO));
     }
 
+    @Cacheable(cacheNames = CacheConfig.CACHE_PRODUCTO_MAS_VENDIDO)
     @Transactional(readOnly = true)
     public ProductoDetalleResponse obtenerProductoMasVendido() {
         Producto producto = productoRepository.findProductoMasVendido().orElse(null);
@@ -216,31 +332,25 @@ public class ProductoService {
         return obtenerDetalleProducto(producto.getIdProducto());
     }
 
+    @Cacheable(cacheNames = CacheConfig.CACHE_PRODUCTOS_DESTACADOS, key = "'baratos:' + #limite")
     @Transactional(readOnly = true)
     public List<ProductoResponse> obtenerProductosMasBaratos(int limite) {
         Pageable pageable = PageRequest.of(0, limite);
-        return productoRepository.findProductosMasBaratos(pageable)
-                .getContent().stream()
-                .map(this::convertirAResponse)
-                .collect(Collectors.toList());
+        return convertirLista(productoRepository.findProductosMasBaratos(pageable).getContent());
     }
 
+    @Cacheable(cacheNames = CacheConfig.CACHE_PRODUCTOS_DESTACADOS, key = "'recientes:' + #limite")
     @Transactional(readOnly = true)
     public List<ProductoResponse> obtenerProductosMasRecientes(int limite) {
         Pageable pageable = PageRequest.of(0, limite);
-        return productoRepository.findProductosMasRecientes(pageable)
-                .getContent().stream()
-                .map(this::convertirAResponse)
-                .collect(Collectors.toList());
+        return convertirLista(productoRepository.findProductosMasRecientes(pageable).getContent());
     }
 
+    @Cacheable(cacheNames = CacheConfig.CACHE_PRODUCTOS_DESTACADOS, key = "'por-agotarse:' + #limite")
     @Transactional(readOnly = true)
     public List<ProductoResponse> obtenerProductosPorAgotarse(int limite) {
         Pageable pageable = PageRequest.of(0, limite);
-        return productoRepository.findProductosPorAgotarse(pageable)
-                .getContent().stream()
-                .map(this::convertirAResponse)
-                .collect(Collectors.toList());
+        return convertirLista(productoRepository.findProductosPorAgotarse(pageable).getContent());
     }
 
     // MÉTODOS AUXILIARES
@@ -280,7 +390,83 @@ public class ProductoService {
         productoDetalleRepository.save(detalle);
     }
 
+    /**
+     * Sentencias SQL preparadas por Hibernate desde el arranque (estadísticas de Hibernate).
+     * La diferencia antes y después de un listado muestra cuántas consultas costó.
+     * Requiere hibernate.generate_statistics (activo en el perfil de test); sin él devuelve 0.
+     */
+    public long getSentenciasEjecutadas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics().getPrepareStatementCount();
+    }
+
+    /**
+     * Categoría, inventario y detalle llegan en la misma consulta del listado (@EntityGraph)
+     */
+    private Page<ProductoResponse> convertirPagina(Page<Producto> pagina) {
+        return pagina.map(producto -> convertirAResponse(producto, producto.getDetalle()));
+    }
+
+    private List<ProductoResponse> convertirLista(List<Producto> productos) {
+        return productos.stream()
+                .map(producto -> convertirAResponse(producto, producto.getDetalle()))
+                .collect(Collectors.toList());
+    }
+
+    private Pageable normalizarOrdenCatalogo(Pageable pageable) {
+        List<Sort.Order> ordenes = new ArrayList<>();
+        for (Sort.Order orden : pageable.getSort()) {
+            String propiedad = ORDENES_CATALOGO.contains(orden.getProperty())
+                    ? orden.getProperty()
+                    : "nombreProducto";
+            ordenes.add(new Sort.Order(orden.getDirection(), propiedad));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(ordenes));
+    }
+
+    /**
+     * Orden para keyset: la propiedad pedida más el ID como desempate
+     */
+    private Sort ordenCursor(String orden, Sort.Direction direccion) {
+        String propiedad = ORDENES_CURSOR.contains(orden) ? orden : "nombreProducto";
+        Sort sort = Sort.by(direccion, propiedad);
+        return "idProducto".equals(propiedad) ? sort : sort.and(Sort.by(direccion, "idProducto"));
+    }
+
+    private Set<String> propiedadesDe(Sort sort) {
+        return sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+    }
+
+    private ProductoResponse convertirVistaAResponse(ProductoListadoView vista) {
+        ProductoResponse response = new ProductoResponse();
+        response.setIdProducto(vista.getIdProducto());
+        response.setNombreProducto(vista.getNombreProducto());
+        response.setDescripcionProducto(vista.getDescripcionProducto());
+        response.setPrecio(vista.getPrecio());
+        response.setStock(vista.getStock());
+        response.setStockMinimo(vista.getStockMinimo());
+        response.setCalificacionPromedio(vista.getCalificacionPromedio());
+        response.setNombreCategoria(vista.getNombreCategoria());
+        response.setIdCategoria(vista.getIdCategoria());
+        response.setFechaCreacion(vista.getFechaCreacion());
+        response.setFechaActualizacion(vista.getFechaActualizacion());
+        response.setDisponible(vista.getStock() != null && vista.getStock() > 0);
+        response.setImagenPrincipal(vista.getImagenPrincipal());
+        response.setMarca(vista.getMarca());
+        response.setModelo(vista.getModelo());
+        return response;
+    }
+
     private ProductoResponse convertirAResponse(Producto producto) {
+        ProductoDetalle detalle = null;
+        try {
+            detalle = productoDetalleRepository.findByProductoIdProducto(producto.getIdProducto()).orElse(null);
+        } catch (Exception e) {
+            log.warn("Error cargando detalles del producto {}", producto.getIdProducto(), e);
+        }
+        return convertirAResponse(producto, detalle);
+    }
+
+    private ProductoResponse convertirAResponse(Producto producto, ProductoDetalle detalle) {
         ProductoResponse response = new ProductoResponse();
         response.setIdProducto(producto.getIdProducto());
         response.setNombreProducto(producto.getNombreProducto());
@@ -295,19 +481,14 @@ public class ProductoService {
         response.setFechaActualizacion(producto.getFechaActualizacion());
         response.setDisponible(producto.getStock() > 0);
 
-        // Cargar imagen principal y marca
-        try {
-            productoDetalleRepository.findByProductoIdProducto(producto.getIdProducto())
-                    .ifPresent(detalle -> {
-                        ProductoDetalle.ImagenDto imgPrincipal = detalle.getImagenPrincipal();
-                        if (imgPrincipal != null) {
-                            response.setImagenPrincipal(imgPrincipal.getUrl());
-                        }
-                        response.setMarca(detalle.getMarca());
-                        response.setModelo(detalle.getModelo());
-                    });
-        } catch (Exception e) {
-            System.err.println("Error cargando detalles: " + e.getMessage());
+        // Imagen principal y marca
+        if (detalle != null) {
+            ProductoDetalle.ImagenDto imgPrincipal = detalle.getImagenPrincipal();
+            if (imgPrincipal != null) {
+                response.setImagenPrincipal(imgPrincipal.getUrl());
+            }
+            response.setMarca(detalle.getMarca());
+            response.setModelo(detalle.getModelo());
         }
 
         return response;
@@ -0,0 +1,13 @@
+package pe.com.ikaza.backend.service;
+
+/**
+ * Proveedor que entrega los SMS (Twilio en producción, simulado para pruebas locales).
+ * Se elige con la propiedad sms.proveedor.
+ */
+public interface ProveedorSms {
+
+    /**
+     * Envía el mensaje y devuelve el identificador asignado por el proveedor
+     */
+    String enviar(String telefono, String texto);
+}
@@ -0,0 +1,34 @@
+package pe.com.ikaza.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Proveedor local que no envía nada: registra el mensaje y simula la latencia
+ * del proveedor real. Permite pruebas de carga sin conexión ni costo.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "sms.proveedor", havingValue = "simulado")
+public class ProveedorSmsSimulado implements ProveedorSms {
+
+    @Value("${sms.simulado.latencia-ms:200}")
+    private long latenciaMs;
+
+    @Override
+    public String enviar(String telefono, String texto) {
+        try {
+            Thread.sleep(latenciaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Envío simulado interrumpido", e);
+        }
+        String id = "SIM-" + UUID.randomUUID();
+        log.info("SMS simulado {} a {}: {}", id, telefono, texto);
+        return id;
+    }
+}
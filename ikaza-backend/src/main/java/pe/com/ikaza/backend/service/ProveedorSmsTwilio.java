@@ -0,0 +1,40 @@
+package pe.com.ikaza.backend.service;
+
+import com.twilio.Twilio;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "sms.proveedor", havingValue = "twilio", matchIfMissing = true)
+public class ProveedorSmsTwilio implements ProveedorSms {
+
+    @Value("${twilio.account.sid}")
+    private String accountSid;
+
+    @Value("${twilio.auth.token}")
+    private String authToken;
+
+    @Value("${twilio.phone.number}")
+    private String fromPhoneNumber;
+
+    @PostConstruct
+    public void inicializar() {
+        Twilio.init(accountSid, authToken);
+        log.info("Twilio inicializado correctamente");
+    }
+
+    @Override
+    public String enviar(String telefono, String texto) {
+        Message message = Message.creator(
+                new PhoneNumber(telefono),
+                new PhoneNumber(fromPhoneNumber),
+                texto).create();
+        return message.getSid();
+    }
+}
@@ -0,0 +1,90 @@
+package pe.com.ikaza.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta una unidad de trabajo en su propia transacción y la reintenta cuando
+ * la base de datos la aborta por concurrencia (deadlock, serialización o bloqueo).
+ * Entre intentos espera con backoff exponencial y jitter completo para que las
+ * transacciones en conflicto no vuelvan a chocar al mismo tiempo.
+ * Publica los contadores transacciones.reintentos y transacciones.abortadas por operación.
+ */
+@Component
+@Slf4j
+public class ReintentoTransaccional {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxIntentos;
+    private final long esperaBaseMs;
+    private final long esperaMaximaMs;
+
+    public ReintentoTransaccional(
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${transacciones.reintentos.max-intentos:4}") int maxIntentos,
+            @Value("${transacciones.reintentos.espera-base-ms:20}") long esperaBaseMs,
+            @Value("${transacciones.reintentos.espera-maxima-ms:500}") long esperaMaximaMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.maxIntentos = maxIntentos;
+        this.esperaBaseMs = esperaBaseMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /**
+     * @param operacion nombre para logs y métricas
+     * @throws ConcurrencyFailureException si se agotan los intentos
+     */
+    public <T> T ejecutar(String operacion, Supplier<T> trabajo) {
+        for (int intento = 1; ; intento++) {
+            try {
+                return transactionTemplate.execute(status -> trabajo.get());
+            } catch (ConcurrencyFailureException e) {
+                if (intento >= maxIntentos) {
+                    contador("transacciones.abortadas", operacion).increment();
+                    log.error("{}: abortada tras {} intentos por conflicto de concurrencia", operacion, intento);
+                    throw e;
+                }
+                contador("transacciones.reintentos", operacion).increment();
+                long espera = calcularEspera(intento);
+                log.warn("{}: conflicto de concurrencia (intento {}), reintentando en {} ms: {}",
+                        operacion, intento, espera, e.getMostSpecificCause().getMessage());
+                esperar(espera);
+            }
+        }
+    }
+
+    /**
+     * Jitter completo: aleatorio entre 0 y min(máximo, base * 2^intento)
+     */
+    private long calcularEspera(int intento) {
+        long techo = Math.min(esperaMaximaMs, esperaBaseMs << Math.min(intento, 20));
+        return ThreadLocalRandom.current().nextLong(techo + 1);
+    }
+
+    private void esperar(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reintento interrumpido", e);
+        }
+    }
+
+    private Counter contador(String nombre, String operacion) {
+        return meterRegistry.counter(nombre, "operacion", operacion);
+    }
+}
@@ -1,64 +1,131 @@
 // SmsService.java
 package pe.com.ikaza.backend.service;
 
-import com.twilio.Twilio;
-import com.twilio.rest.api.v2010.account.Message;
-import com.twilio.type.PhoneNumber;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pe.com.ikaza.backend.utils.TokenBucket;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envío de SMS en segundo plano.
+ * - Los mensajes entran a una cola acotada y los envían hilos dedicados.
+ * - Un token bucket limita el ritmo al que admite el proveedor.
+ * - Dentro de una transacción, el mensaje se encola recién tras el commit.
+ */
 @Service
 @Slf4j
 public class SmsService {
 
-    @Value("${twilio.account.sid}")
-    private String accountSid;
+    private final ProveedorSms proveedor;
+    private final TokenBucket limite;
+    private final ThreadPoolExecutor ejecutor;
 
-    @Value("${twilio.auth.token}")
-    private String authToken;
+    private final Counter enviados;
+    private final Counter fallidos;
+    private final Counter rechazados;
 
-    @Value("${twilio.phone.number}")
-    private String fromPhoneNumber;
+    public SmsService(
+            ProveedorSms proveedor,
+            MeterRegistry meterRegistry,
+            @Value("${sms.hilos:2}") int hilos,
+            @Value("${sms.cola.capacidad:500}") int capacidadCola,
+            @Value("${sms.limite.por-segundo:1}") double porSegundo,
+            @Value("${sms.limite.rafaga:5}") int rafaga) {
+        this.proveedor = proveedor;
+        this.limite = new TokenBucket(rafaga, porSegundo);
 
-    private boolean twilioInitialized = false;
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> {
+                    Thread t = new Thread(r, "sms-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
 
-    private void initializeTwilio() {
-        if (!twilioInitialized) {
-            Twilio.init(accountSid, authToken);
-            twilioInitialized = true;
-            log.info("Twilio inicializado correctamente");
-        }
+        this.enviados = Counter.builder("sms.envios").tag("resultado", "ok").register(meterRegistry);
+        this.fallidos = Counter.builder("sms.envios").tag("resultado", "error").register(meterRegistry);
+        this.rechazados = Counter.builder("sms.envios").tag("resultado", "rechazado").register(meterRegistry);
+        Gauge.builder("sms.cola.tamano", ejecutor, e -> e.getQueue().size())
+                .description("SMS en espera de envío")
+                .register(meterRegistry);
     }
 
     /**
-     * Enviar SMS con código de verificación
+     * Enviar SMS con código de verificación (no bloquea: se encola)
      */
     public void enviarCodigoVerificacion(String telefono, String codigo) {
-        try {
-            initializeTwilio();
+        String mensajeTexto = String.format(
+                "Tu código de verificación es: %s\n\nEste código es válido por 10 minutos.",
+                codigo);
+        encolar(telefono, mensajeTexto);
+    }
 
-            String mensajeTexto = String.format(
-                    "Tu código de verificación es: %s\n\nEste código es válido por 10 minutos.",
-                    codigo);
+    /**
+     * Validar formato de teléfono
+     */
+    public boolean isValidPhoneNumber(String telefono) {
+        return telefono != null && telefono.matches("^\\+[1-9]\\d{9,14}$");
+    }
 
-            Message message = Message.creator(
-                    new PhoneNumber(telefono),
-                    new PhoneNumber(fromPhoneNumber),
-                    mensajeTexto).create();
+    private void encolar(String telefono, String texto) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    despachar(telefono, texto);
+                }
+            });
+        } else {
+            despachar(telefono, texto);
+        }
+    }
 
-            log.info("SMS enviado exitosamente. SID: {}", message.getSid());
+    private void despachar(String telefono, String texto) {
+        try {
+            ejecutor.execute(() -> enviar(telefono, texto));
+        } catch (RejectedExecutionException e) {
+            rechazados.increment();
+            log.error("Cola de SMS llena, no se envió el mensaje a {}", telefono);
+        }
+    }
 
+    private void enviar(String telefono, String texto) {
+        try {
+            limite.consumir();
+            String id = proveedor.enviar(telefono, texto);
+            enviados.increment();
+            log.info("SMS enviado exitosamente. SID: {}", id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
+            fallidos.increment();
             log.error("Error enviando SMS a {}: {}", telefono, e.getMessage());
-            throw new RuntimeException("Error al enviar SMS: " + e.getMessage());
         }
     }
 
-    /**
-     * Validar formato de teléfono
-     */
-    public boolean isValidPhoneNumber(String telefono) {
-        return telefono != null && telefono.matches("^\\+[1-9]\\d{9,14}$");
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdown();
+        try {
+            if (!ejecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                ejecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ejecutor.shutdownNow();
+        }
     }
 }
@@ -2,25 +2,23 @@ package pe.com.ikaza.backend.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pe.com.ikaza.backend.entity.CodigoVerificacion;
 import pe.com.ikaza.backend.entity.Usuario;
 import pe.com.ikaza.backend.repository.ClienteRepository;
-import pe.com.ikaza.backend.repository.CodigoVerificacionRepository;
 import pe.com.ikaza.backend.repository.UsuarioRepository;
 import pe.com.ikaza.backend.entity.Cliente;
+import pe.com.ikaza.backend.service.AlmacenCodigosVerificacion.ResultadoVerificacion;
 
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class VerificacionService {
 
-    private final CodigoVerificacionRepository codigoRepository;
+    private final AlmacenCodigosVerificacion almacenCodigos;
     private final UsuarioRepository usuarioRepository;
     private final ClienteRepository clienteRepository;
     private final EmailService emailService;
@@ -41,15 +39,8 @@ public class VerificacionService {
             // Generar código de 6 dígitos
             String codigo = generarCodigo();
 
-            // Guardar en BD
-            CodigoVerificacion codigoVerificacion = CodigoVerificacion.builder()
-                    .email(email)
-                    .codigo(codigo)
-                    .tipo(CodigoVerificacion.TipoVerificacion.EMAIL)
-                    .usado(false)
-                    .build();
-
-            codigoRepository.save(codigoVerificacion);
+            // Guardar código activo
+            almacenCodigos.guardar(CodigoVerificacion.TipoVerificacion.EMAIL, email, codigo);
 
             // Enviar email
             emailService.enviarCodigoVerificacion(email, codigo);
@@ -67,20 +58,7 @@ public class VerificacionService {
      */
     @Transactional
     public boolean verifyEmailCode(String email, String codigo) {
-        CodigoVerificacion codigoVerificacion = codigoRepository
-                .findTopByEmailAndTipoAndUsadoFalseOrderByFechaCreacionDesc(
-                        email,
-                        CodigoVerificacion.TipoVerificacion.EMAIL)
-                .orElseThrow(() -> new IllegalArgumentException("No hay código pendiente"));
-
-        if (!codigoVerificacion.isValido(codigo)) {
-            throw new IllegalArgumentException("Código inválido o expirado");
-        }
-
-        // Marcar código como usado
-        codigoVerificacion.setUsado(true);
-        codigoVerificacion.setFechaUso(LocalDateTime.now());
-        codigoRepository.save(codigoVerificacion);
+        validarResultado(almacenCodigos.verificar(CodigoVerificacion.TipoVerificacion.EMAIL, email, codigo));
 
         // Marcar email como verificado en Usuario
         Usuario usuario = usuarioRepository.findByEmail(email)
@@ -121,15 +99,8 @@ public class VerificacionService {
             // Generar código
             String codigo = generarCodigo();
 
-            // Guardar en BD
-            CodigoVerificacion codigoVerificacion = CodigoVerificacion.builder()
-                    .telefono(telefono)
-                    .codigo(codigo)
-                    .tipo(CodigoVerificacion.TipoVerificacion.PHONE)
-                    .usado(false)
-                    .build();
-
-            codigoRepository.save(codigoVerificacion);
+            // Guardar código activo
+            almacenCodigos.guardar(CodigoVerificacion.TipoVerificacion.PHONE, telefono, codigo);
 
             // Enviar SMS
             smsService.enviarCodigoVerificacion(telefono, codigo);
@@ -147,20 +118,7 @@ public class VerificacionService {
      */
     @Transactional
     public boolean verifyPhoneCode(String email, String telefono, String codigo) {
-        CodigoVerificacion codigoVerificacion = codigoRepository
-                .findTopByTelefonoAndTipoAndUsadoFalseOrderByFechaCreacionDesc(
-                        telefono,
-                        CodigoVerificacion.TipoVerificacion.PHONE)
-                .orElseThrow(() -> new IllegalArgumentException("No hay código pendiente"));
-
-        if (!codigoVerificacion.isValido(codigo)) {
-            throw new IllegalArgumentException("Código inválido o expirado");
-        }
-
-        // Marcar código como usado
-        codigoVerificacion.setUsado(true);
-        codigoVerificacion.setFechaUso(LocalDateTime.now());
-        codigoRepository.save(codigoVerificacion);
+        validarResultado(almacenCodigos.verificar(CodigoVerificacion.TipoVerificacion.PHONE, telefono, codigo));
 
         Usuario usuario = usuarioRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
@@ -200,13 +158,16 @@ public class VerificacionService {
     }
 
     /**
-     * Tarea programada para limpiar códigos expirados (cada hora)
+     * Traduce el resultado del almacén a los errores que ya devolvía el servicio
      */
-    @Scheduled(cron = "0 0 * * * *")
-    @Transactional
-    public void limpiarCodigosExpirados() {
-        LocalDateTime hace24Horas = LocalDateTime.now().minusHours(24);
-        codigoRepository.eliminarCodigosExpirados(hace24Horas);
-        log.info("🧹 Códigos expirados eliminados");
+    private void validarResultado(ResultadoVerificacion resultado) {
+        switch (resultado) {
+            case VALIDO -> {
+            }
+            case SIN_CODIGO -> throw new IllegalArgumentException("No hay código pendiente");
+            case BLOQUEADO -> throw new IllegalArgumentException(
+                    "Demasiados intentos fallidos, solicita un nuevo código");
+            default -> throw new IllegalArgumentException("Código inválido o expirado");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package pe.com.ikaza.backend.utils;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Codifica y decodifica los cursores opacos de la paginación por keyset.
+ * Un cursor guarda los valores de ordenamiento del último elemento de la página
+ * (incluido su ID) con su tipo, en Base64 URL-safe: "propiedad=tipo:valor;...".
+ */
+public final class CursorCodec {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Convierte la posición de un Window en cursor; null cuando no hay más resultados
+     */
+    public static String codificar(ScrollPosition posicion) {
+        if (!(posicion instanceof KeysetScrollPosition keyset) || keyset.isInitial()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Object> clave : keyset.getKeys().entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            sb.append(clave.getKey()).append('=').append(codificarValor(clave.getValue()));
+        }
+        return ENCODER.encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Convierte un cursor en la posición desde la que continuar.
+     * Sin cursor devuelve la posición inicial.
+     * @param propiedadesEsperadas propiedades de ordenamiento (incluido el ID) del orden solicitado
+     * @throws IllegalArgumentException si el cursor está mal formado o no corresponde al orden
+     */
+    public static KeysetScrollPosition decodificar(String cursor, Set<String> propiedadesEsperadas) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String texto = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            Map<String, Object> claves = new LinkedHashMap<>();
+            for (String par : texto.split(";")) {
+                int igual = par.indexOf('=');
+                String propiedad = par.substring(0, igual);
+                if (!propiedadesEsperadas.contains(propiedad)) {
+                    throw new IllegalArgumentException("Cursor no válido para este ordenamiento");
+                }
+                claves.put(propiedad, decodificarValor(par.substring(igual + 1)));
+            }
+            if (!claves.keySet().equals(propiedadesEsperadas)) {
+                throw new IllegalArgumentException("Cursor no válido para este ordenamiento");
+            }
+            return ScrollPosition.forward(claves);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor mal formado");
+        }
+    }
+
+    private static String codificarValor(Object valor) {
+        if (valor instanceof Long) {
+            return "L:" + valor;
+        } else if (valor instanceof Integer) {
+            return "I:" + valor;
+        } else if (valor instanceof BigDecimal decimal) {
+            return "D:" + decimal.toPlainString();
+        } else if (valor instanceof LocalDateTime fecha) {
+            return "T:" + fecha;
+        } else if (valor instanceof String texto) {
+            return "S:" + ENCODER.encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+        }
+        throw new IllegalArgumentException("Tipo de clave no soportado en cursor: " + valor);
+    }
+
+    private static Object decodificarValor(String valor) {
+        String contenido = valor.substring(2);
+        return switch (valor.charAt(0)) {
+            case 'L' -> Long.valueOf(contenido);
+            case 'I' -> Integer.valueOf(contenido);
+            case 'D' -> new BigDecimal(contenido);
+            case 'T' -> LocalDateTime.parse(contenido);
+            case 'S' -> new String(DECODER.decode(contenido), StandardCharsets.UTF_8);
+            default -> throw new IllegalArgumentException("Cursor mal formado");
+        };
+    }
+}
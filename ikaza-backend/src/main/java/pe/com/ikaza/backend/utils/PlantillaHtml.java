@@ -0,0 +1,78 @@
+package pe.com.ikaza.backend.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plantilla HTML compilada una sola vez.
+ * El texto se divide en tramos fijos y variables {{nombre}}; al renderizar solo
+ * se concatenan los tramos con los valores, en un buffer del tamaño estimado.
+ * Los valores se insertan tal cual (sin escapar), igual que el HTML armado a mano.
+ */
+public final class PlantillaHtml {
+
+    private static final String APERTURA = "{{";
+    private static final String CIERRE = "}}";
+    private static final int LONGITUD_ESTIMADA_VARIABLE = 24;
+
+    private final String[] tramos;
+    private final String[] variables;
+    private final int capacidadInicial;
+
+    private PlantillaHtml(String[] tramos, String[] variables) {
+        this.tramos = tramos;
+        this.variables = variables;
+        int longitud = 0;
+        for (String tramo : tramos) {
+            longitud += tramo.length();
+        }
+        this.capacidadInicial = longitud + variables.length * LONGITUD_ESTIMADA_VARIABLE;
+    }
+
+    /**
+     * Compila el texto de la plantilla; lanza IllegalArgumentException si una variable no se cierra
+     */
+    public static PlantillaHtml compilar(String fuente) {
+        List<String> tramos = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int posicion = 0;
+        while (true) {
+            int inicio = fuente.indexOf(APERTURA, posicion);
+            if (inicio < 0) {
+                tramos.add(fuente.substring(posicion));
+                break;
+            }
+            int fin = fuente.indexOf(CIERRE, inicio + APERTURA.length());
+            if (fin < 0) {
+                throw new IllegalArgumentException("Variable sin cerrar en la posición " + inicio);
+            }
+            tramos.add(fuente.substring(posicion, inicio));
+            variables.add(fuente.substring(inicio + APERTURA.length(), fin).trim());
+            posicion = fin + CIERRE.length();
+        }
+        return new PlantillaHtml(tramos.toArray(String[]::new), variables.toArray(String[]::new));
+    }
+
+    public String renderizar(Map<String, ?> valores) {
+        StringBuilder destino = new StringBuilder(capacidadInicial);
+        renderizar(destino, valores);
+        return destino.toString();
+    }
+
+    /**
+     * Renderiza sobre un buffer existente (útil para filas y bloques anidados).
+     * Las variables sin valor se dejan vacías.
+     */
+    public void renderizar(StringBuilder destino, Map<String, ?> valores) {
+        destino.ensureCapacity(destino.length() + capacidadInicial);
+        for (int i = 0; i < variables.length; i++) {
+            destino.append(tramos[i]);
+            Object valor = valores.get(variables[i]);
+            if (valor != null) {
+                destino.append(valor);
+            }
+        }
+        destino.append(tramos[variables.length]);
+    }
+}
@@ -0,0 +1,45 @@
+package pe.com.ikaza.backend.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para búsquedas.
+ * Quita tildes y diéresis (NFD), pasa a minúsculas y separa en palabras,
+ * de modo que "Cámara Fotográfica" y "camara fotografica" coincidan.
+ */
+public final class TextoNormalizador {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextoNormalizador() {
+    }
+
+    /**
+     * Devuelve el texto sin tildes y en minúsculas (cadena vacía si es null)
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return "";
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return MARCAS_DIACRITICAS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normaliza el texto y lo separa en palabras no vacías
+     */
+    public static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARADORES.split(normalizar(texto))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
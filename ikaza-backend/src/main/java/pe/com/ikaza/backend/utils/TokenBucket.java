@@ -0,0 +1,61 @@
+package pe.com.ikaza.backend.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitador de ritmo por token bucket.
+ * Se reponen "porSegundo" tokens por segundo hasta un máximo de "capacidad" (ráfaga).
+ */
+public final class TokenBucket {
+
+    private final long capacidad;
+    private final double tokensPorNano;
+    private double tokens;
+    private long ultimaRecarga;
+
+    public TokenBucket(long capacidad, double porSegundo) {
+        if (capacidad <= 0 || porSegundo <= 0) {
+            throw new IllegalArgumentException("La capacidad y el ritmo deben ser positivos");
+        }
+        this.capacidad = capacidad;
+        this.tokensPorNano = porSegundo / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacidad;
+        this.ultimaRecarga = System.nanoTime();
+    }
+
+    /**
+     * Toma un token si hay disponible, sin esperar
+     */
+    public synchronized boolean intentarConsumir() {
+        recargar();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Espera hasta que haya un token disponible y lo toma
+     */
+    public void consumir() throws InterruptedException {
+        while (true) {
+            long esperaNanos;
+            synchronized (this) {
+                recargar();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                esperaNanos = (long) Math.ceil((1 - tokens) / tokensPorNano);
+            }
+            TimeUnit.NANOSECONDS.sleep(esperaNanos);
+        }
+    }
+
+    private void recargar() {
+        long ahora = System.nanoTime();
+        tokens = Math.min(capacidad, tokens + (ahora - ultimaRecarga) * tokensPorNano);
+        ultimaRecarga = ahora;
+    }
+}
@@ -0,0 +1,201 @@
+package pe.com.ikaza.backend.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import pe.com.ikaza.backend.entity.DetallePedido;
+import pe.com.ikaza.backend.entity.Pedido;
+import pe.com.ikaza.backend.entity.Producto;
+import pe.com.ikaza.backend.enums.EstadoPedido;
+import pe.com.ikaza.backend.repository.ClienteRepository;
+import pe.com.ikaza.backend.repository.CorreoPendienteRepository;
+import pe.com.ikaza.backend.service.EmailService;
+import pe.com.ikaza.backend.service.PlantillasCorreo;
+import pe.com.ikaza.backend.service.PoolTransporteSmtp;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * HTML del correo de confirmación: EmailService.construirHtmlConfirmacion actual
+ * (plantilla compilada) frente a la versión anterior, copiada tal cual abajo
+ * (StringBuilder, DateTimeFormatter y String.format en cada llamada).
+ * Se ejecuta con GCProfiler: comparar gc.alloc.rate.norm (bytes por correo).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfirmacionPedidoBenchmark {
+
+    @Param({ "1", "10", "50" })
+    private int items;
+
+    private Pedido pedido;
+    private MethodHandle construirActual;
+
+    @Setup
+    public void preparar() throws ReflectiveOperationException {
+        pedido = new Pedido();
+        pedido.setNumeroPedido("PED-000123");
+        pedido.setFechaPedido(LocalDateTime.of(2025, 3, 14, 9, 26));
+        pedido.setEstado(EstadoPedido.CONFIRMADO);
+        pedido.setTotal(new BigDecimal("4990.00"));
+        for (int i = 0; i < items; i++) {
+            Producto producto = new Producto();
+            producto.setNombreProducto("Producto " + i);
+            DetallePedido detalle = new DetallePedido();
+            detalle.setProducto(producto);
+            detalle.setCantidad(2);
+            detalle.setPrecioUnitario(new BigDecimal("49.90"));
+            detalle.setSubtotal(new BigDecimal("99.80"));
+            detalle.setColorSeleccionado(i % 2 == 0 ? "Negro" : null);
+            pedido.getDetalles().add(detalle);
+        }
+
+        PlantillasCorreo plantillas = new PlantillasCorreo();
+        plantillas.cargar();
+        EmailService emailService = new EmailService(mock(JavaMailSender.class), mock(ClienteRepository.class),
+                mock(CorreoPendienteRepository.class), mock(PoolTransporteSmtp.class), plantillas);
+        ReflectionTestUtils.setField(emailService, "appName", "Ikaza Imports");
+
+        construirActual = MethodHandles.privateLookupIn(EmailService.class, MethodHandles.lookup())
+                .findVirtual(EmailService.class, "construirHtmlConfirmacion",
+                        MethodType.methodType(String.class, Pedido.class))
+                .bindTo(emailService);
+    }
+
+    @Benchmark
+    public String actual() throws Throwable {
+        return (String) construirActual.invokeExact(pedido);
+    }
+
+    @Benchmark
+    public String anterior() {
+        return Anterior.construirHtmlConfirmacion(pedido, "Ikaza Imports");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConfirmacionPedidoBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /** EmailService.construirHtmlConfirmacion antes de las plantillas compiladas */
+    private static final class Anterior {
+
+        static String construirHtmlConfirmacion(Pedido pedido, String appName) {
+            StringBuilder html = new StringBuilder();
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+            html.append("<!DOCTYPE html>");
+            html.append("<html><head><meta charset='UTF-8'></head><body>");
+            html.append("<div style='font-family: Arial, sans-serif; max-width: 600px; margin: 0 auto;'>");
+
+            // Header
+            html.append(
+                    "<div style='background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); color: white; padding: 30px; text-align: center;'>");
+            html.append("<h1 style='margin: 0;'>¡Gracias por tu compra!</h1>");
+            html.append("<p style='margin: 10px 0 0 0; font-size: 16px;'>").append(appName).append("</p>");
+            html.append("</div>");
+
+            // Información del pedido
+            html.append("<div style='padding: 30px; background-color: #f8f9fa;'>");
+            html.append("<h2 style='color: #333; margin-top: 0;'>Detalles del Pedido</h2>");
+            html.append("<table style='width: 100%; border-collapse: collapse;'>");
+            html.append(
+                    "<tr><td style='padding: 10px 0; border-bottom: 1px solid #dee2e6;'><strong>Número de Pedido:</strong></td>");
+            html.append("<td style='padding: 10px 0; border-bottom: 1px solid #dee2e6; text-align: right;'>")
+                    .append(pedido.getNumeroPedido()).append("</td></tr>");
+            html.append("<tr><td style='padding: 10px 0; border-bottom: 1px solid #dee2e6;'><strong>Fecha:</strong></td>");
+            html.append("<td style='padding: 10px 0; border-bottom: 1px solid #dee2e6; text-align: right;'>")
+                    .append(pedido.getFechaPedido().format(formatter)).append("</td></tr>");
+            html.append("<tr><td style='padding: 10px 0; border-bottom: 1px solid #dee2e6;'><strong>Estado:</strong></td>");
+            html.append(
+                    "<td style='padding: 10px 0; border-bottom: 1px solid #dee2e6; text-align: right;'><span style='background-color: #28a745; color: white; padding: 5px 10px; border-radius: 5px;'>")
+                    .append(pedido.getEstado()).append("</span></td></tr>");
+            html.append("</table>");
+            html.append("</div>");
+
+            // Productos
+            html.append("<div style='padding: 30px; background-color: white;'>");
+            html.append("<h3 style='color: #333; margin-top: 0;'>Productos</h3>");
+            html.append("<table style='width: 100%; border-collapse: collapse;'>");
+            html.append("<thead><tr style='background-color: #f8f9fa;'>");
+            html.append("<th style='padding: 10px; text-align: left; border-bottom: 2px solid #dee2e6;'>Producto</th>");
+            html.append("<th style='padding: 10px; text-align: center; border-bottom: 2px solid #dee2e6;'>Cantidad</th>");
+            html.append("<th style='padding: 10px; text-align: right; border-bottom: 2px solid #dee2e6;'>Precio</th>");
+            html.append("<th style='padding: 10px; text-align: right; border-bottom: 2px solid #dee2e6;'>Subtotal</th>");
+            html.append("</tr></thead><tbody>");
+
+            for (DetallePedido detalle : pedido.getDetalles()) {
+                html.append("<tr>");
+                html.append("<td style='padding: 10px; border-bottom: 1px solid #dee2e6;'>")
+                        .append(detalle.getProducto().getNombreProducto());
+                if (detalle.getColorSeleccionado() != null || detalle.getTallaSeleccionada() != null) {
+                    html.append("<br><small style='color: #6c757d;'>");
+                    if (detalle.getColorSeleccionado() != null)
+                        html.append(detalle.getColorSeleccionado());
+                    if (detalle.getTallaSeleccionada() != null)
+                        html.append(" - ").append(detalle.getTallaSeleccionada());
+                    html.append("</small>");
+                }
+                html.append("</td>");
+                html.append("<td style='padding: 10px; text-align: center; border-bottom: 1px solid #dee2e6;'>")
+                        .append(detalle.getCantidad()).append("</td>");
+                html.append("<td style='padding: 10px; text-align: right; border-bottom: 1px solid #dee2e6;'>S/ ")
+                        .append(String.format("%.2f", detalle.getPrecioUnitario())).append("</td>");
+                html.append("<td style='padding: 10px; text-align: right; border-bottom: 1px solid #dee2e6;'>S/ ")
+                        .append(String.format("%.2f", detalle.getSubtotal())).append("</td>");
+                html.append("</tr>");
+            }
+
+            html.append("</tbody></table>");
+            html.append("</div>");
+
+            // Total
+            html.append("<div style='padding: 30px; background-color: #f8f9fa; border-top: 3px solid #667eea;'>");
+            html.append("<div style='text-align: right;'>");
+            html.append("<h2 style='color: #333; margin: 0;'>Total: <span style='color: #28a745;'>S/ ")
+                    .append(String.format("%.2f", pedido.getTotal())).append("</span></h2>");
+            html.append("</div>");
+            html.append("</div>");
+
+            // Footer
+            html.append("<div style='padding: 20px; text-align: center; background-color: #343a40; color: white;'>");
+            html.append("<p style='margin: 0; font-size: 14px;'>Gracias por confiar en ").append(appName)
+                    .append("</p>");
+            html.append(
+                    "<p style='margin: 10px 0 0 0; font-size: 12px; color: #adb5bd;'>Este es un correo automático, por favor no responder.</p>");
+            html.append("</div>");
+
+            html.append("</div></body></html>");
+
+            return html.toString();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package pe.com.ikaza.backend.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import pe.com.ikaza.backend.security.JwtUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura del token en cada petición autenticada.
+ * "anterior" reproduce lo que hacía JwtAuthenticationFilter: validateJwtToken y luego
+ * getUserEmailFromJwtToken, cada uno construyendo la clave y el parser y parseando el
+ * token. "actual" es el parseo único con clave y parser reutilizados.
+ * El objetivo es la asignación por petición, así que se mide con GCProfiler (B/op).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+public class JwtUtilsBenchmark {
+
+    private static final String SECRETO = "secretoDeBenchmarkSuficientementeLargoParaHmacSha256!";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void generarToken() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRETO);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtils, "refreshExpiration", 604800000L);
+        jwtUtils.init();
+        token = jwtUtils.generateTokenFromUsername("cliente@ikaza.pe", 42, "CLIENTE");
+    }
+
+    @Benchmark
+    public String actual() {
+        Claims claims = jwtUtils.validarYObtenerClaims(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    @Benchmark
+    public String anterior() {
+        // validateJwtToken
+        Jwts.parser().verifyWith(claveAnterior()).build().parseSignedClaims(token);
+        // getUserEmailFromJwtToken
+        return Jwts.parser().verifyWith(claveAnterior()).build()
+                .parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    /** getSigningKey() de la versión anterior: una clave nueva por llamada */
+    private static SecretKey claveAnterior() {
+        return Keys.hmacShaKeyFor(SECRETO.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtUtilsBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package pe.com.ikaza.backend.benchmark;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import pe.com.ikaza.backend.security.RutasPublicas;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JwtAuthenticationFilter.shouldNotFilter sobre una mezcla de peticiones:
+ * la lista PUBLIC_URLS con stream().anyMatch(startsWith) que había antes
+ * frente a RutasPublicas.omitirFiltro. Resultado en operaciones por segundo
+ * (una operación = una petición de la mezcla).
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RutasPublicasBenchmark {
+
+    /** Lista del filtro antes del cambio */
+    private static final List<String> PUBLIC_URLS = Arrays.asList(
+            "/api/auth/registro",
+            "/api/auth/login",
+            "/api/auth/refresh",
+            "/api/auth/verificar-email",
+            "/api/public",
+            "/api/google-maps/",
+            "/api/categorias/"
+    );
+
+    private static final int PETICIONES = 8;
+
+    /** Mayoría de rutas autenticadas (recorren toda la lista) y algunas públicas */
+    private final HttpServletRequest[] mezcla = {
+            new MockHttpServletRequest("GET", "/api/productos/123"),
+            new MockHttpServletRequest("GET", "/api/pedidos/mis-pedidos"),
+            new MockHttpServletRequest("POST", "/api/buzon/enviar"),
+            new MockHttpServletRequest("GET", "/api/clientes/perfil"),
+            new MockHttpServletRequest("POST", "/api/auth/login"),
+            new MockHttpServletRequest("GET", "/api/categorias/4"),
+            new MockHttpServletRequest("GET", "/api/inventario/movimientos"),
+            new MockHttpServletRequest("POST", "/api/webhooks/mercadopago/create-preference")
+    };
+
+    private final RutasPublicas rutasPublicas = new RutasPublicas();
+
+    @Benchmark
+    @OperationsPerInvocation(PETICIONES)
+    public void listaStartsWith(Blackhole bh) {
+        for (HttpServletRequest request : mezcla) {
+            String path = request.getRequestURI();
+            bh.consume(PUBLIC_URLS.stream().anyMatch(path::startsWith));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PETICIONES)
+    public void trie(Blackhole bh) {
+        for (HttpServletRequest request : mezcla) {
+            bh.consume(rutasPublicas.omitirFiltro(request));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package pe.com.ikaza.backend.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import pe.com.ikaza.backend.entity.Categoria;
+import pe.com.ikaza.backend.entity.Inventario;
+import pe.com.ikaza.backend.entity.Producto;
+import pe.com.ikaza.backend.entity.ProductoDetalle;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductoRepositoryTest.Repositorios.class)
+class ProductoRepositoryTest {
+
+	/** BackendApplication solo habilita repository.jpa; aquí se registran los de este paquete */
+	@TestConfiguration
+	@EnableJpaRepositories(basePackageClasses = ProductoRepository.class)
+	static class Repositorios {
+	}
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Test
+	void listadoPorCategoriaNoCreceConElTamanoDeLaPagina() {
+		long conPocos = sentenciasAlListar("Pocos", 3);
+		long conMuchos = sentenciasAlListar("Muchos", 12);
+
+		assertThat(conMuchos).isEqualTo(conPocos);
+	}
+
+	/**
+	 * Sentencias preparadas al listar una página con n productos y leer lo que
+	 * usa ProductoResponse (categoría, inventario y detalle de cada uno)
+	 */
+	private long sentenciasAlListar(String categoria, int n) {
+		Long idCategoria = crearProductos(categoria, n);
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics estadisticas = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.clear();
+
+		Page<Producto> pagina = productoRepository.findByCategoriaIdCategoria(idCategoria, PageRequest.of(0, 50));
+		assertThat(pagina.getContent()).hasSize(n);
+		for (Producto producto : pagina) {
+			assertThat(producto.getCategoria().getNombreCategoria()).isEqualTo(categoria);
+			assertThat(producto.getInventario().getStockActual()).isEqualTo(10);
+			assertThat(producto.getDetalle().getMarca()).isEqualTo("Ikaza");
+		}
+		return estadisticas.getPrepareStatementCount();
+	}
+
+	private Long crearProductos(String nombreCategoria, int n) {
+		Categoria categoria = new Categoria();
+		categoria.setNombreCategoria(nombreCategoria);
+		entityManager.persist(categoria);
+
+		for (int i = 0; i < n; i++) {
+			Producto producto = new Producto();
+			producto.setCategoria(categoria);
+			producto.setNombreProducto(nombreCategoria + " " + i);
+			producto.setPrecio(new BigDecimal("19.90"));
+			producto.setStock(10);
+
+			Inventario inventario = new Inventario();
+			inventario.setProducto(producto);
+			inventario.setStockActual(10);
+			producto.setInventario(inventario);
+
+			ProductoDetalle detalle = new ProductoDetalle();
+			detalle.setProducto(producto);
+			detalle.setCodigo(nombreCategoria + "-" + i);
+			detalle.setMarca("Ikaza");
+			producto.setDetalle(detalle);
+
+			entityManager.persist(producto);
+		}
+		return categoria.getIdCategoria();
+	}
+}
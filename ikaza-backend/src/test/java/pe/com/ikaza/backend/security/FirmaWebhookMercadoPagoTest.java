@@ -0,0 +1,46 @@
+package pe.com.ikaza.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FirmaWebhookMercadoPagoTest {
+
+	// HMAC-SHA256 de "id:123456;request-id:abc-1;ts:1704908010;" con "secreto-prueba"
+	private static final String V1 = "6b77f0729cc2c23ae265f7d12be743c67756dff6c0e804f108c7e931cac3ff4f";
+
+	private final FirmaWebhookMercadoPago firma = new FirmaWebhookMercadoPago("secreto-prueba");
+
+	@Test
+	void aceptaFirmaCorrecta() {
+		assertThat(firma.esValida("ts=1704908010,v1=" + V1, "abc-1", "123456")).isTrue();
+		assertThat(firma.esValida(" ts=1704908010 , v1=" + V1 + " ", "abc-1", "123456")).isTrue();
+	}
+
+	@Test
+	void omiteRequestIdAusenteYUsaIdEnMinusculas() {
+		// HMAC-SHA256 de "id:a1b2;ts:1704908010;"
+		String v1 = "ef4dd18045b635db778ca570ebecd9a6ad9b688dfec0e29906c00494bfd1c11d";
+		assertThat(firma.esValida("ts=1704908010,v1=" + v1, null, "A1B2")).isTrue();
+	}
+
+	@Test
+	void rechazaDatosAlterados() {
+		assertThat(firma.esValida("ts=1704908010,v1=" + V1, "abc-1", "999999")).isFalse();
+		assertThat(firma.esValida("ts=1704908011,v1=" + V1, "abc-1", "123456")).isFalse();
+		assertThat(firma.esValida("ts=1704908010,v1=" + V1, "otro", "123456")).isFalse();
+	}
+
+	@Test
+	void rechazaFirmaMalFormada() {
+		assertThat(firma.esValida(null, "abc-1", "123456")).isFalse();
+		assertThat(firma.esValida("v1=" + V1, "abc-1", "123456")).isFalse();
+		assertThat(firma.esValida("ts=1704908010,v1=zz", "abc-1", "123456")).isFalse();
+	}
+
+	@Test
+	void sinSecretoRechazaTodo() {
+		FirmaWebhookMercadoPago sinSecreto = new FirmaWebhookMercadoPago("");
+		assertThat(sinSecreto.esValida("ts=1704908010,v1=" + V1, "abc-1", "123456")).isFalse();
+	}
+}
@@ -0,0 +1,79 @@
+package pe.com.ikaza.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RutasPublicasTest {
+
+	private final RutasPublicas rutasPublicas = new RutasPublicas();
+
+	private static MockHttpServletRequest peticion(String metodo, String uri) {
+		return new MockHttpServletRequest(metodo, uri);
+	}
+
+	@Test
+	void prefijoCubreLaRutaYSusHijas() {
+		assertThat(rutasPublicas.esPermitida(peticion("POST", "/api/auth"))).isTrue();
+		assertThat(rutasPublicas.esPermitida(peticion("POST", "/api/auth/"))).isTrue();
+		assertThat(rutasPublicas.esPermitida(peticion("POST", "/api/auth/logout"))).isTrue();
+		assertThat(rutasPublicas.esPermitida(peticion("GET", "/api/productos"))).isTrue();
+	}
+
+	@Test
+	void prefijoRespetaElLimiteDeSegmento() {
+		assertThat(rutasPublicas.esPermitida(peticion("POST", "/api/authx"))).isFalse();
+		assertThat(rutasPublicas.esPermitida(peticion("GET", "/api/productosx/1"))).isFalse();
+		assertThat(rutasPublicas.esPermitida(peticion("GET", "/api/au"))).isFalse();
+	}
+
+	@Test
+	void mascaraDeMetodos() {
+		assertThat(rutasPublicas.esPermitida(peticion("GET", "/api/productos/5"))).isTrue();
+		assertThat(rutasPublicas.esPermitida(peticion("POST", "/api/productos/5"))).isFalse();
+		assertThat(rutasPublicas.esPermitida(peticion("DELETE", "/api/categorias/2"))).isFalse();
+		assertThat(rutasPublicas.esPermitida(peticion("TRACE", "/api/auth/login"))).isFalse();
+	}
+
+	@Test
+	void rutasFueraDeLaTablaNoSonPublicas() {
+		assertThat(rutasPublicas.esPermitida(peticion("GET", "/api/pedidos"))).isFalse();
+		assertThat(rutasPublicas.omitirFiltro(peticion("GET", "/api/pedidos"))).isFalse();
+	}
+
+	@Test
+	void webhookDeMercadoPagoSoloPorPostYRutaExacta() {
+		assertThat(rutasPublicas.esPermitida(peticion("POST", "/api/webhooks/mercadopago"))).isTrue();
+		assertThat(rutasPublicas.omitirFiltro(peticion("POST", "/api/webhooks/mercadopago"))).isTrue();
+		assertThat(rutasPublicas.esPermitida(peticion("GET", "/api/webhooks/mercadopago"))).isFalse();
+		assertThat(rutasPublicas.esPermitida(peticion("POST", "/api/webhooks/mercadopago/create-preference"))).isFalse();
+		assertThat(rutasPublicas.omitirFiltro(peticion("POST", "/api/webhooks/mercadopago/create-preference"))).isFalse();
+	}
+
+	@Test
+	void omitirFiltroEquivaleAStartsWith() {
+		assertThat(rutasPublicas.omitirFiltro(peticion("POST", "/api/auth/login"))).isTrue();
+		assertThat(rutasPublicas.omitirFiltro(peticion("POST", "/api/auth/refresh-token"))).isTrue();
+		assertThat(rutasPublicas.omitirFiltro(peticion("GET", "/api/publicidad"))).isTrue();
+		assertThat(rutasPublicas.omitirFiltro(peticion("GET", "/api/google-maps/geocode"))).isTrue();
+		assertThat(rutasPublicas.omitirFiltro(peticion("PUT", "/api/categorias/3"))).isTrue();
+
+		assertThat(rutasPublicas.omitirFiltro(peticion("POST", "/api/auth/logout"))).isFalse();
+		assertThat(rutasPublicas.omitirFiltro(peticion("GET", "/api/auth/verificar-token"))).isFalse();
+		assertThat(rutasPublicas.omitirFiltro(peticion("GET", "/api/google-maps"))).isFalse();
+		assertThat(rutasPublicas.omitirFiltro(peticion("GET", "/api/categorias"))).isFalse();
+		assertThat(rutasPublicas.omitirFiltro(peticion("GET", "/api/productos/5"))).isFalse();
+	}
+
+	@Test
+	void seIgnoraElContextPath() {
+		MockHttpServletRequest request = peticion("POST", "/tienda/api/auth/login");
+		request.setContextPath("/tienda");
+		assertThat(rutasPublicas.esPermitida(request)).isTrue();
+		assertThat(rutasPublicas.omitirFiltro(request)).isTrue();
+
+		MockHttpServletRequest sinContexto = peticion("POST", "/tienda/api/auth/login");
+		assertThat(rutasPublicas.esPermitida(sinContexto)).isFalse();
+	}
+}
@@ -0,0 +1,68 @@
+package pe.com.ikaza.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import pe.com.ikaza.backend.repository.RepositorioCola;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ColaReclamableTest {
+
+	@SuppressWarnings("unchecked")
+	private final RepositorioCola<String> repositorio = mock(RepositorioCola.class);
+	private final List<LocalDateTime> reclamos = new ArrayList<>();
+
+	private final ColaReclamable<String> cola = new ColaReclamable<>(repositorio,
+			mock(PlatformTransactionManager.class), (fila, finReclamo) -> reclamos.add(finReclamo),
+			10, 3, 1000, 60000);
+
+	@Test
+	void reclamarLoteMarcaCadaFilaHastaElFinDelPlazo() {
+		when(repositorio.bloquearPendientes(any(), eq(10))).thenReturn(List.of("a", "b"));
+		LocalDateTime antes = LocalDateTime.now();
+
+		assertThat(cola.reclamarLote()).containsExactly("a", "b");
+
+		assertThat(reclamos).hasSize(2)
+				.allSatisfy(fin -> assertThat(fin).isAfterOrEqualTo(antes.plusSeconds(60)));
+	}
+
+	@Test
+	void siguienteIntentoDuplicaLaEsperaHastaAgotar() {
+		ColaReclamable.Reintento primero = cola.siguienteIntento(0, new RuntimeException("caída"));
+		ColaReclamable.Reintento segundo = cola.siguienteIntento(1, new RuntimeException("caída"));
+		ColaReclamable.Reintento tercero = cola.siguienteIntento(2, new RuntimeException("x".repeat(800)));
+
+		assertThat(primero.intentos()).isEqualTo(1);
+		assertThat(primero.esperaMs()).isEqualTo(1000);
+		assertThat(primero.agotado()).isFalse();
+		assertThat(segundo.esperaMs()).isEqualTo(2000);
+		assertThat(tercero.agotado()).isTrue();
+		assertThat(tercero.error()).hasSize(500);
+	}
+
+	@Test
+	void metricaDePendientesNoCuentaEnCadaLectura() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		AtomicInteger conteos = new AtomicInteger();
+		cola.registrarPendientes(registry, "cola.pendientes", "Pendientes", () -> {
+			conteos.incrementAndGet();
+			return 7;
+		});
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(registry.get("cola.pendientes").gauge().value()).isEqualTo(7.0);
+		}
+		assertThat(conteos).hasValue(1);
+	}
+}
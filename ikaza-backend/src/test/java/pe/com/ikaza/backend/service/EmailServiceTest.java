@@ -0,0 +1,85 @@
+package pe.com.ikaza.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import pe.com.ikaza.backend.entity.CorreoPendiente;
+import pe.com.ikaza.backend.entity.DetallePedido;
+import pe.com.ikaza.backend.entity.Pedido;
+import pe.com.ikaza.backend.entity.Producto;
+import pe.com.ikaza.backend.enums.EstadoPedido;
+import pe.com.ikaza.backend.repository.ClienteRepository;
+import pe.com.ikaza.backend.repository.CorreoPendienteRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class EmailServiceTest {
+
+	private final CorreoPendienteRepository correoPendienteRepository = mock(CorreoPendienteRepository.class);
+	private EmailService emailService;
+
+	@BeforeEach
+	void preparar() {
+		PlantillasCorreo plantillas = new PlantillasCorreo();
+		plantillas.cargar();
+		emailService = new EmailService(mock(JavaMailSender.class), mock(ClienteRepository.class),
+				correoPendienteRepository, mock(PoolTransporteSmtp.class), plantillas);
+		ReflectionTestUtils.setField(emailService, "appName", "Ikaza");
+	}
+
+	private String htmlEncolado() {
+		ArgumentCaptor<CorreoPendiente> correo = ArgumentCaptor.forClass(CorreoPendiente.class);
+		verify(correoPendienteRepository).save(correo.capture());
+		return correo.getValue().getCuerpoHtml();
+	}
+
+	@Test
+	void confirmacionConPedidoCompleto() {
+		Producto producto = new Producto();
+		producto.setNombreProducto("Zapatilla Runner");
+		DetallePedido detalle = new DetallePedido();
+		detalle.setProducto(producto);
+		detalle.setCantidad(2);
+		detalle.setPrecioUnitario(new BigDecimal("49.9"));
+		detalle.setSubtotal(new BigDecimal("99.8"));
+		detalle.setColorSeleccionado("Negro");
+		detalle.setTallaSeleccionada("42");
+
+		Pedido pedido = new Pedido();
+		pedido.setNumeroPedido("PED-0001");
+		pedido.setFechaPedido(LocalDateTime.of(2025, 3, 14, 9, 26));
+		pedido.setEstado(EstadoPedido.CONFIRMADO);
+		pedido.setTotal(new BigDecimal("99.8"));
+		pedido.getDetalles().add(detalle);
+
+		emailService.encolarConfirmacionPedido(pedido, "cliente@ikaza.pe");
+
+		assertThat(htmlEncolado())
+				.contains("PED-0001", "14/03/2025 09:26", "CONFIRMADO", "S/ 99.80", "S/ 49.90",
+						"Zapatilla Runner", "Negro - 42")
+				.doesNotContain("{{");
+	}
+
+	@Test
+	void confirmacionConPedidoParcialNoFalla() {
+		// Solo algunos campos: número, estado, fecha, total y producto quedan en null
+		DetallePedido detalle = new DetallePedido();
+		detalle.setCantidad(1);
+
+		Pedido pedido = new Pedido();
+		pedido.getDetalles().add(detalle);
+
+		emailService.encolarConfirmacionPedido(pedido, "cliente@ikaza.pe");
+
+		assertThat(htmlEncolado())
+				.contains("Ikaza", "Detalles del Pedido")
+				.doesNotContain("{{");
+	}
+}
@@ -0,0 +1,85 @@
+package pe.com.ikaza.backend.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+	@Test
+	void idaYVueltaConservaTiposYValores() {
+		Map<String, Object> claves = new LinkedHashMap<>();
+		claves.put("precio", new BigDecimal("199.90"));
+		claves.put("fechaCreacion", LocalDateTime.of(2025, 3, 14, 9, 26, 53));
+		claves.put("nombreProducto", "Cámara; modelo=EOS");
+		claves.put("stock", 7);
+		claves.put("idProducto", 42L);
+
+		String cursor = CursorCodec.codificar(ScrollPosition.forward(claves));
+		KeysetScrollPosition posicion = CursorCodec.decodificar(cursor, claves.keySet());
+
+		assertThat(posicion.getKeys()).isEqualTo(claves);
+		assertThat(posicion.getDirection()).isEqualTo(ScrollPosition.Direction.FORWARD);
+	}
+
+	@Test
+	void cursorEsSeguroParaUrl() {
+		String cursor = CursorCodec.codificar(ScrollPosition.forward(Map.of("nombreProducto", "???>>>", "idProducto", 1L)));
+		assertThat(cursor).matches("[A-Za-z0-9_-]+");
+	}
+
+	@Test
+	void posicionInicialNoGeneraCursor() {
+		assertThat(CursorCodec.codificar(ScrollPosition.keyset())).isNull();
+		assertThat(CursorCodec.codificar(ScrollPosition.offset(10))).isNull();
+	}
+
+	@Test
+	void sinCursorDevuelvePosicionInicial() {
+		assertThat(CursorCodec.decodificar(null, Set.of("idProducto")).isInitial()).isTrue();
+		assertThat(CursorCodec.decodificar("  ", Set.of("idProducto")).isInitial()).isTrue();
+	}
+
+	@Test
+	void rechazaCursorDeOtroOrdenamiento() {
+		String cursor = CursorCodec.codificar(ScrollPosition.forward(Map.of("precio", BigDecimal.ONE, "idProducto", 1L)));
+
+		assertThatThrownBy(() -> CursorCodec.decodificar(cursor, Set.of("fechaCreacion", "idProducto")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Cursor no válido para este ordenamiento");
+		assertThatThrownBy(() -> CursorCodec.decodificar(cursor, Set.of("precio", "stock", "idProducto")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Cursor no válido para este ordenamiento");
+	}
+
+	@Test
+	void rechazaCursorMalFormado() {
+		assertThatThrownBy(() -> CursorCodec.decodificar("%%%", Set.of("idProducto")))
+				.isInstanceOf(IllegalArgumentException.class);
+		String tipoDesconocido = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("idProducto=X:1".getBytes());
+		assertThatThrownBy(() -> CursorCodec.decodificar(tipoDesconocido, Set.of("idProducto")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Cursor mal formado");
+		String numeroInvalido = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("idProducto=L:abc".getBytes());
+		assertThatThrownBy(() -> CursorCodec.decodificar(numeroInvalido, Set.of("idProducto")))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void tipoNoSoportadoAlCodificar() {
+		assertThatThrownBy(() -> CursorCodec.codificar(ScrollPosition.forward(Map.of("activo", true))))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
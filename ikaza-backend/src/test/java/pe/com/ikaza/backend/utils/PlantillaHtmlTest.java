@@ -0,0 +1,66 @@
+package pe.com.ikaza.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlantillaHtmlTest {
+
+	@Test
+	void reemplazaVariablesEnSuPosicion() {
+		PlantillaHtml plantilla = PlantillaHtml.compilar("<p>Hola {{nombre}}, pedido {{ numero }}.</p>");
+
+		assertThat(plantilla.renderizar(Map.of("nombre", "Ana", "numero", 42)))
+				.isEqualTo("<p>Hola Ana, pedido 42.</p>");
+	}
+
+	@Test
+	void variablesEnLosExtremosYConsecutivas() {
+		PlantillaHtml plantilla = PlantillaHtml.compilar("{{a}}{{b}}-{{a}}");
+
+		assertThat(plantilla.renderizar(Map.of("a", "x", "b", "y"))).isEqualTo("xy-x");
+	}
+
+	@Test
+	void textoSinVariablesQuedaIgual() {
+		assertThat(PlantillaHtml.compilar("<br>").renderizar(Map.of())).isEqualTo("<br>");
+		assertThat(PlantillaHtml.compilar("").renderizar(Map.of())).isEmpty();
+	}
+
+	@Test
+	void variableSinValorQuedaVacia() {
+		Map<String, Object> valores = new HashMap<>();
+		valores.put("nulo", null);
+
+		assertThat(PlantillaHtml.compilar("[{{falta}}][{{nulo}}]").renderizar(valores)).isEqualTo("[][]");
+	}
+
+	@Test
+	void valoresSeInsertanSinEscapar() {
+		PlantillaHtml plantilla = PlantillaHtml.compilar("<td>{{celda}}</td>");
+
+		assertThat(plantilla.renderizar(Map.of("celda", "<b>{{otra}}</b>"))).isEqualTo("<td><b>{{otra}}</b></td>");
+	}
+
+	@Test
+	void renderizaSobreUnBufferExistente() {
+		PlantillaHtml fila = PlantillaHtml.compilar("<tr>{{n}}</tr>");
+		StringBuilder destino = new StringBuilder("<table>");
+
+		fila.renderizar(destino, Map.of("n", 1));
+		fila.renderizar(destino, Map.of("n", 2));
+
+		assertThat(destino.append("</table>").toString()).isEqualTo("<table><tr>1</tr><tr>2</tr></table>");
+	}
+
+	@Test
+	void variableSinCerrarFallaAlCompilar() {
+		assertThatThrownBy(() -> PlantillaHtml.compilar("<p>{{nombre</p>"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Variable sin cerrar en la posición 3");
+	}
+}
@@ -0,0 +1,54 @@
+package pe.com.ikaza.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTest {
+
+	@Test
+	void rechazaParametrosNoPositivos() {
+		assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new TokenBucket(1, 0)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void permiteUnaRafagaDeHastaLaCapacidad() {
+		// Ritmo muy bajo: durante la prueba no se repone ningún token
+		TokenBucket bucket = new TokenBucket(3, 0.001);
+
+		assertThat(bucket.intentarConsumir()).isTrue();
+		assertThat(bucket.intentarConsumir()).isTrue();
+		assertThat(bucket.intentarConsumir()).isTrue();
+		assertThat(bucket.intentarConsumir()).isFalse();
+	}
+
+	@Test
+	void reponeTokensConElTiempoSinSuperarLaCapacidad() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(2, 20);
+		assertThat(bucket.intentarConsumir()).isTrue();
+		assertThat(bucket.intentarConsumir()).isTrue();
+
+		// 200 ms a 20/s reponen 4 tokens, pero la capacidad limita a 2
+		TimeUnit.MILLISECONDS.sleep(200);
+		assertThat(bucket.intentarConsumir()).isTrue();
+		assertThat(bucket.intentarConsumir()).isTrue();
+		assertThat(bucket.intentarConsumir()).isFalse();
+	}
+
+	@Test
+	void consumirEsperaAlSiguienteToken() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(1, 20);
+		bucket.consumir();
+
+		long inicio = System.nanoTime();
+		bucket.consumir();
+		long esperaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+		// A 20/s el siguiente token llega en ~50 ms
+		assertThat(esperaMs).isGreaterThanOrEqualTo(40);
+	}
+}